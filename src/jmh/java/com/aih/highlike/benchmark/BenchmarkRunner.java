@@ -0,0 +1,61 @@
+package com.aih.highlike.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 运行方式：mvn -Pjmh test-compile exec:exec
+ * <p>
+ * 无参数时执行完整流程：
+ * 1. add 与 CacheManager.get 在 1~64 个线程下分别测量吞吐量与分配速率（gc 分析器）
+ * 2. list 与 fading 在单线程下测量
+ * 3. 输出各算法在不同分布下的 TopK 召回率
+ * <p>
+ * 带参数时按 JMH 命令行参数执行，例如只跑某个算法：-p algorithm=SPACE_SAVING
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * 并发线程数
+     */
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            new Runner(new CommandLineOptions(args)).run();
+            return;
+        }
+
+        for (int threads : THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                    .include(TopKBenchmark.class.getName() + ".add$")
+                    .include(CacheManagerBenchmark.class.getName() + ".get$")
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-add-get-t" + threads + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+
+        Options singleThread = new OptionsBuilder()
+                .include(TopKBenchmark.class.getName() + ".(list|fading)$")
+                .threads(1)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-list-fading.json")
+                .build();
+        new Runner(singleThread).run();
+
+        RecallCheck.run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.aih.highlike.benchmark;
+
+import com.aih.highlike.manager.cache.CacheManager;
+import com.aih.highlike.manager.cache.ClusterHotKeyAggregator;
+import com.aih.highlike.manager.cache.TopK;
+import com.aih.highlike.model.enums.HotKeyAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheManager.get 基准测试
+ * <p>
+ * Redis 由 {@link StubRedisTemplate} 代替，集群热点集合为空，
+ * 测量的是本地缓存查询 + 热点检测 + 本地缓存写入这一整条读路径
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheManagerBenchmark {
+
+    /**
+     * 与点赞业务一致的 Hash Key
+     */
+    private static final String HASH_KEY = "thumb:1";
+
+    @Param({"HEAVY_KEEPER", "LOCK_FREE_HEAVY_KEEPER", "SLIDING_WINDOW", "SPACE_SAVING", "COUNT_MIN"})
+    public HotKeyAlgorithm algorithm;
+
+    @Param({"ZIPF", "UNIFORM"})
+    public KeyDistribution distribution;
+
+    String[] keys;
+
+    CacheManager cacheManager;
+
+    TopK detector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = distribution.keys(TopKBenchmark.KEY_SPACE, TopKBenchmark.SEQUENCE_LENGTH, 42);
+        cacheManager = new CacheManager();
+        ReflectionTestUtils.setField(cacheManager, "hotKeyProperties", Detectors.properties(algorithm, Detectors.DEFAULT_K, 0));
+        ReflectionTestUtils.setField(cacheManager, "redisTemplate", new StubRedisTemplate());
+        ReflectionTestUtils.setField(cacheManager, "clusterHotKeyAggregator", new ClusterHotKeyAggregator());
+        ReflectionTestUtils.setField(cacheManager, "meterRegistry", new SimpleMeterRegistry());
+        detector = cacheManager.getHotKeyDetector();
+        cacheManager.localCache();
+        for (String key : keys) {
+            cacheManager.get(HASH_KEY, key);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Detectors.close(detector);
+    }
+
+    @Benchmark
+    public Object get(TopKBenchmark.Cursor cursor) {
+        return cacheManager.get(HASH_KEY, cursor.next(keys));
+    }
+}
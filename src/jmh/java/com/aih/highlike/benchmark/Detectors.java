@@ -0,0 +1,59 @@
+package com.aih.highlike.benchmark;
+
+import com.aih.highlike.config.HotKeyProperties;
+import com.aih.highlike.manager.cache.CacheManager;
+import com.aih.highlike.manager.cache.TopK;
+import com.aih.highlike.model.enums.HotKeyAlgorithm;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 按生产配置创建热点检测器
+ * <p>
+ * 直接复用 {@link CacheManager#getHotKeyDetector()}，保证基准测试的对象与线上一致
+ */
+final class Detectors {
+
+    private Detectors() {
+    }
+
+    /**
+     * 生产配置的 K 值（application.yml 中的 hot-key.k）
+     */
+    static final int DEFAULT_K = 100;
+
+    /**
+     * 默认配置的属性对象
+     *
+     * @param algorithm 热点检测算法
+     * @param k         TopK 的 K 值
+     * @param stripes   分片数
+     */
+    static HotKeyProperties properties(HotKeyAlgorithm algorithm, int k, int stripes) {
+        HotKeyProperties properties = new HotKeyProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setK(k);
+        properties.setStripes(stripes);
+        return properties;
+    }
+
+    /**
+     * 创建热点检测器
+     *
+     * @param properties 热点检测配置
+     * @return 热点检测器
+     */
+    static TopK create(HotKeyProperties properties) {
+        CacheManager cacheManager = new CacheManager();
+        ReflectionTestUtils.setField(cacheManager, "hotKeyProperties", properties);
+        return cacheManager.getHotKeyDetector();
+    }
+
+    /**
+     * 关闭检测器持有的后台线程（分片 TopK 的合并线程）
+     */
+    static void close(TopK detector) throws Exception {
+        if (detector instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
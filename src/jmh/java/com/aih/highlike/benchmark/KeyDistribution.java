@@ -0,0 +1,95 @@
+package com.aih.highlike.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试的 Key 分布
+ * <p>
+ * Key 序列在初始化时一次性生成，测量阶段只按下标读取，不把随机数和字符串拼接的开销算进结果
+ */
+public enum KeyDistribution {
+
+    /**
+     * Zipf 分布（s = 1.0），少数博客占据大部分点赞访问
+     */
+    ZIPF {
+        @Override
+        long[] sample(int keySpace, int length, SplittableRandom random) {
+            // 累积分布函数，按二分查找采样
+            double[] cdf = new double[keySpace];
+            double sum = 0;
+            for (int i = 0; i < keySpace; i++) {
+                sum += 1.0 / (i + 1);
+                cdf[i] = sum;
+            }
+            long[] ids = new long[length];
+            for (int i = 0; i < length; i++) {
+                double u = random.nextDouble() * sum;
+                int low = 0;
+                int high = keySpace - 1;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (cdf[mid] < u) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                ids[i] = low;
+            }
+            return ids;
+        }
+    },
+
+    /**
+     * 均匀分布，没有热点，用于观察冷 Key 路径
+     */
+    UNIFORM {
+        @Override
+        long[] sample(int keySpace, int length, SplittableRandom random) {
+            long[] ids = new long[length];
+            for (int i = 0; i < length; i++) {
+                ids[i] = random.nextInt(keySpace);
+            }
+            return ids;
+        }
+    };
+
+    /**
+     * 生成 Key 编号序列
+     *
+     * @param keySpace Key 总数
+     * @param length   序列长度
+     * @param random   随机数源
+     * @return Key 编号序列，编号越小越热
+     */
+    abstract long[] sample(int keySpace, int length, SplittableRandom random);
+
+    /**
+     * 生成 Key 序列
+     * <p>
+     * 编号打乱后再转为字符串，避免热点 Key 恰好是最短的字符串
+     *
+     * @param keySpace Key 总数
+     * @param length   序列长度，取 2 的幂以便按位取模
+     * @param seed     随机种子
+     * @return Key 序列
+     */
+    public String[] keys(int keySpace, int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] ids = sample(keySpace, length, random);
+        String[] keys = new String[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = String.valueOf(scramble(ids[i]));
+        }
+        return keys;
+    }
+
+    /**
+     * 将编号映射为博客 ID 形式的长整数
+     */
+    static long scramble(long id) {
+        long z = (id + 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (z ^ (z >>> 31)) & Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,78 @@
+package com.aih.highlike.benchmark;
+
+import com.aih.highlike.config.HotKeyProperties;
+import com.aih.highlike.manager.cache.Item;
+import com.aih.highlike.manager.cache.TopK;
+import com.aih.highlike.model.enums.HotKeyAlgorithm;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TopK 召回率检查
+ * <p>
+ * 同一 Key 序列同时喂给检测器和精确计数器，召回率 = 检测器 TopK 与精确 TopK 的交集 / K。
+ * 吞吐量提升不能以召回率下降为代价，修改检测器时两者一起看
+ */
+public final class RecallCheck {
+
+    /**
+     * 喂入的访问次数
+     */
+    private static final int ACCESS_COUNT = 4 * TopKBenchmark.SEQUENCE_LENGTH;
+
+    private RecallCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        run();
+    }
+
+    /**
+     * 对所有算法和分布计算召回率并输出
+     */
+    public static void run() throws Exception {
+        System.out.printf("%-24s %-8s %8s%n", "algorithm", "dist", "recall");
+        for (KeyDistribution distribution : KeyDistribution.values()) {
+            String[] keys = distribution.keys(TopKBenchmark.KEY_SPACE, TopKBenchmark.SEQUENCE_LENGTH, 42);
+            for (HotKeyAlgorithm algorithm : HotKeyAlgorithm.values()) {
+                double recall = recall(Detectors.properties(algorithm, Detectors.DEFAULT_K, 0), keys);
+                System.out.printf("%-24s %-8s %8.3f%n", algorithm, distribution, recall);
+            }
+        }
+    }
+
+    /**
+     * 计算单个检测器的召回率
+     *
+     * @param properties 热点检测配置
+     * @param keys       Key 序列
+     * @return 召回率
+     */
+    static double recall(HotKeyProperties properties, String[] keys) throws Exception {
+        TopK detector = Detectors.create(properties);
+        Map<String, Integer> exact = new HashMap<>();
+        try {
+            for (int i = 0; i < ACCESS_COUNT; i++) {
+                String key = keys[i & (keys.length - 1)];
+                detector.add(key, 1);
+                exact.merge(key, 1, Integer::sum);
+            }
+            int k = properties.getK();
+            Set<String> expected = new HashSet<>();
+            exact.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .limit(k)
+                    .forEach(entry -> expected.add(entry.getKey()));
+
+            List<Item> actual = detector.list();
+            long hits = actual.stream().filter(item -> expected.contains(item.key())).count();
+            return (double) hits / Math.min(k, expected.size());
+        } finally {
+            Detectors.close(detector);
+        }
+    }
+}
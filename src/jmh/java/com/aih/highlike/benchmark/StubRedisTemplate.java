@@ -0,0 +1,37 @@
+package com.aih.highlike.benchmark;
+
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * 不连接 Redis 的 RedisTemplate
+ * <p>
+ * 只实现 opsForHash().get：所有 Field 都视为已点赞并返回固定的点赞记录 ID，
+ * 基准测试因此只衡量本地缓存与热点检测的开销，不包含网络往返
+ */
+class StubRedisTemplate extends RedisTemplate<String, Object> {
+
+    /**
+     * 固定返回的点赞记录 ID
+     */
+    private static final Long THUMB_ID = 1L;
+
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOperations = (HashOperations<String, Object, Object>) Proxy.newProxyInstance(
+            HashOperations.class.getClassLoader(),
+            new Class<?>[]{HashOperations.class},
+            (proxy, method, args) -> {
+                if ("get".equals(method.getName())) {
+                    return THUMB_ID;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+        return (HashOperations<String, HK, HV>) hashOperations;
+    }
+}
@@ -0,0 +1,117 @@
+package com.aih.highlike.benchmark;
+
+import com.aih.highlike.manager.cache.AddResult;
+import com.aih.highlike.manager.cache.Item;
+import com.aih.highlike.manager.cache.TopK;
+import com.aih.highlike.model.enums.HotKeyAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热点检测器基准测试
+ * <p>
+ * 覆盖 add、list、fading 三个操作，检测器按生产配置创建，
+ * 初始化时先完整灌入一遍 Key 序列，测量的是稳定状态下的开销
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TopKBenchmark {
+
+    /**
+     * Key 总数
+     */
+    static final int KEY_SPACE = 100_000;
+
+    /**
+     * Key 序列长度（2 的幂）
+     */
+    static final int SEQUENCE_LENGTH = 1 << 20;
+
+    @Param({"HEAVY_KEEPER", "LOCK_FREE_HEAVY_KEEPER", "SLIDING_WINDOW", "SPACE_SAVING", "COUNT_MIN"})
+    public HotKeyAlgorithm algorithm;
+
+    @Param({"ZIPF", "UNIFORM"})
+    public KeyDistribution distribution;
+
+    /**
+     * TopK 的 K 值，对比生产配置与大 K 下索引堆的开销
+     */
+    @Param({"100", "10000"})
+    public int k;
+
+    /**
+     * 分片数，大于 1 时使用分片 TopK
+     */
+    @Param({"0"})
+    public int stripes;
+
+    String[] keys;
+
+    TopK detector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = distribution.keys(KEY_SPACE, SEQUENCE_LENGTH, 42);
+        detector = Detectors.create(Detectors.properties(algorithm, k, stripes));
+        for (String key : keys) {
+            detector.add(key, 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Detectors.close(detector);
+    }
+
+    /**
+     * 每个线程独立的读取位置，起点随机，避免所有线程同步访问同一个 Key
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int position;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            position = ThreadLocalRandom.current().nextInt(SEQUENCE_LENGTH);
+        }
+
+        String next(String[] keys) {
+            return keys[position++ & (SEQUENCE_LENGTH - 1)];
+        }
+    }
+
+    @Benchmark
+    public AddResult add(Cursor cursor) {
+        return detector.add(cursor.next(keys), 1);
+    }
+
+    @Benchmark
+    public List<Item> list() {
+        return detector.list();
+    }
+
+    @Benchmark
+    public void fading() {
+        detector.fading();
+    }
+}
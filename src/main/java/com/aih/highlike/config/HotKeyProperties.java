@@ -0,0 +1,127 @@
+package com.aih.highlike.config;
+
+import com.aih.highlike.model.enums.HotKeyAlgorithm;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 热点检测配置
+ * <p>
+ * 对应 application.yml 中的 hot-key 配置项
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "hot-key")
+public class HotKeyProperties {
+
+    /**
+     * 热点检测算法
+     */
+    private HotKeyAlgorithm algorithm = HotKeyAlgorithm.LOCK_FREE_HEAVY_KEEPER;
+
+    /**
+     * 监控 Top K 个 Key
+     */
+    private int k = 100;
+
+    /**
+     * 草图宽度（HeavyKeeper / Count-Min；滑动窗口为各时间片合计，按时间片数平均分配）
+     */
+    private int width = 100000;
+
+    /**
+     * 草图深度（HeavyKeeper / Count-Min）
+     */
+    private int depth = 5;
+
+    /**
+     * 衰减系数（HeavyKeeper）
+     */
+    private double decay = 0.92;
+
+    /**
+     * 最小出现次数，低于该值不进入 TopK
+     */
+    private int minCount = 10;
+
+    /**
+     * 集群最小计数，各节点上报计数之和低于该值的 Key 不作为集群热点
+     */
+    private int clusterMinCount = 20;
+
+    /**
+     * 监控的计数器数量（Space-Saving）
+     */
+    private int capacity = 1000;
+
+    /**
+     * 时间片数量（滑动窗口）
+     */
+    private int sliceCount = 6;
+
+    /**
+     * 时间片长度，单位毫秒（滑动窗口）
+     */
+    private long sliceMillis = 10000;
+
+    /**
+     * 分片数，大于 1 时启用分片 TopK，每个分片的宽度与最小次数按分片数缩小
+     */
+    private int stripes = 0;
+
+    /**
+     * 分片合并间隔，单位毫秒
+     */
+    private long mergeIntervalMs = 1000;
+
+    /**
+     * 本地缓存写入后的过期时间，单位秒
+     * <p>
+     * 写入会通过 Redis Pub/Sub 广播失效，过期时间只用于兜底丢失的广播
+     */
+    private long localCacheExpireSeconds = 300;
+
+    /**
+     * 本地缓存内存预算，条目按估算的字节数称重
+     */
+    private DataSize localCacheMaxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 是否根据命中率自动调整本地缓存内存预算
+     */
+    private boolean localCacheAutoTune = false;
+
+    /**
+     * 自动调整时的预算下限
+     */
+    private DataSize localCacheMinSize = DataSize.ofMegabytes(16);
+
+    /**
+     * 自动调整时的预算上限占最大堆内存的比例
+     */
+    private double localCacheMaxHeapRatio = 0.25;
+
+    /**
+     * 本地缓存写入后多久开始刷新，单位秒，应小于过期时间
+     * <p>
+     * 只有仍是热点的 Key 会刷新，冷 Key 到期后直接过期
+     */
+    private long localCacheRefreshSeconds = 240;
+
+    /**
+     * 是否在停机时保存热点快照、启动时恢复
+     */
+    private boolean snapshotEnabled = true;
+
+    /**
+     * 热点快照文件路径
+     */
+    private String snapshotPath = System.getProperty("java.io.tmpdir") + "/high-like/hot-key.snapshot";
+
+    /**
+     * 快照最大有效期，单位秒，超过后启动时忽略
+     */
+    private long snapshotMaxAgeSeconds = 600;
+}
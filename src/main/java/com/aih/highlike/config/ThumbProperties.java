@@ -0,0 +1,68 @@
+package com.aih.highlike.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 点赞配置
+ * <p>
+ * 对应 application.yml 中的 thumb 配置项
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "thumb")
+public class ThumbProperties {
+
+    /**
+     * 是否开启组提交（同步点赞服务）
+     * <p>
+     * 开启后并发的点赞 / 取消点赞请求进入队列，由提交线程合并为一个事务写入 MySQL
+     */
+    private boolean groupCommitEnabled = false;
+
+    /**
+     * 组提交单批最大请求数
+     */
+    private int groupCommitMaxBatch = 256;
+
+    /**
+     * 组提交最长攒批时间（毫秒）
+     */
+    private long groupCommitIntervalMs = 5;
+
+    /**
+     * 调用方等待提交结果的超时时间（毫秒）
+     */
+    private long groupCommitTimeoutMs = 5000;
+
+    /**
+     * 补偿任务每批读取的时间片数量
+     */
+    private int compensationBatchSize = 100;
+
+    /**
+     * 补偿任务每秒最多同步的时间片数量，避免补偿大量积压时占满 Redis 与 MySQL
+     */
+    private double compensationSlicesPerSecond = 20;
+
+    /**
+     * 时间片同步每块的记录数，每块 HSCAN 读取后单独提交一个事务
+     */
+    private int syncChunkSize = 500;
+
+    /**
+     * 时间片同步锁的租期（毫秒），每块提交前续期，需大于单块的同步耗时
+     */
+    private long syncLockTimeoutMs = 60000;
+
+    /**
+     * 同步点赞服务按用户加锁的分段锁数量，向上取整为 2 的幂
+     */
+    private int lockStripes = 1024;
+
+    /**
+     * 获取分段锁的最长等待时间（毫秒），超时后请求直接失败
+     */
+    private long lockTimeoutMs = 3000;
+}
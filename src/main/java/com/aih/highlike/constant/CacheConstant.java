@@ -0,0 +1,66 @@
+package com.aih.highlike.constant;
+
+/**
+ * 缓存常量
+ */
+public interface CacheConstant {
+
+    /**
+     * 集群热点 Key 汇总 Redis Key 前缀
+     * Redis 结构：
+     * - ZSet：hotkey:global:{window}:{nodeId} -> {key: 该节点最近一次上报的计数}
+     * - Set：hotkey:global:{window}:nodes -> {本窗口上报过的 nodeId}
+     * 示例：hotkey:global:352871234:3f2a... -> {"1": 3200, "2": 870}
+     * <p>
+     * 说明：
+     * - window: 时间窗口编号，epoch 秒 / 窗口长度
+     * - 每个节点的上报覆盖自己在本窗口的计数，同一窗口内多次上报不会重复累加；
+     *   读取时按节点求和
+     */
+    String GLOBAL_HOT_KEY_PREFIX = "hotkey:global:";
+
+    /**
+     * 集群热点汇总窗口长度（秒）
+     * <p>
+     * 每个节点每个窗口上报一次本地 TopK，读取上一个完整窗口的汇总结果
+     */
+    int GLOBAL_HOT_KEY_WINDOW_SECONDS = 5;
+
+    /**
+     * 集群热点 Key 数量
+     */
+    int GLOBAL_HOT_KEY_TOP_K = 100;
+
+    /**
+     * 本地缓存失效广播频道
+     * Redis Pub/Sub 消息格式：{nodeId}|{compositeKey}
+     * 示例：3f2a...|thumb:user:1:100
+     * <p>
+     * 说明：
+     * - nodeId: 发送节点 ID，节点忽略自己发出的消息
+     * - compositeKey: 本地缓存的复合 Key（hashKey:field）
+     */
+    String LOCAL_CACHE_INVALIDATION_CHANNEL = "cache:invalidate";
+
+    /**
+     * 博客缓存 Redis Key 前缀
+     * Redis Hash 结构：blog:{blogId} -> {blogId: Blog}
+     * 示例：blog:1 -> {"1": {"id": 1, "title": "...", "content": "..."}}
+     * <p>
+     * 说明：
+     * - 每个博客一个 Hash，Field 同为 blogId，复用 CacheManager 按 Field 计数的热点检测，
+     *   博客详情与点赞状态共享同一份热度
+     * - 每个博客独立设置过期时间
+     */
+    String BLOG_KEY_PREFIX = "blog:";
+
+    /**
+     * 博客缓存过期时间（秒）
+     */
+    long BLOG_EXPIRE_SECONDS = 1800;
+
+    /**
+     * 博客缓存过期时间的随机偏移上限（秒），避免同一批写入的博客同时过期
+     */
+    long BLOG_EXPIRE_JITTER_SECONDS = 300;
+}
@@ -3,6 +3,8 @@ package com.aih.highlike.constant;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
 
+import java.util.List;
+
 /**
  * Redis Lua 脚本常量
  * <p>
@@ -10,15 +12,60 @@ import org.springframework.data.redis.core.script.RedisScript;
  */
 public class RedisLuaScript {
 
+    /**
+     * 点赞数增量分片累加函数（拼接在点赞脚本开头）
+     * <p>
+     * 与点赞记录在同一个脚本中更新，点赞记录与点赞数同时生效
+     * <p>
+     * 参数说明：
+     * - countKey: 博客点赞数增量分片 Key（thumb:count:{blogId}:{generation}:{shard}）
+     * - delta: 变化量
+     * - expireAt: 过期时间点（epoch 秒，本代结束时）
+     */
+    private static final String THUMB_COUNT_FUNCTION = """
+            local function addThumbCount(countKey, delta, expireAt)
+                redis.call('INCRBY', countKey, delta)
+                redis.call('EXPIREAT', countKey, expireAt)
+            end
+            """;
+
+    /**
+     * MQ 待消费点赞数累加函数（拼接在 MQ 点赞脚本开头）
+     * <p>
+     * 累加时间片内已发送、尚未消费的点赞数变化量，并登记时间片到 MQ 待消费索引
+     * <p>
+     * 参数说明：
+     * - countKey: MQ 待消费点赞数变化量 Key（thumb:mq:count:{sliceId}）
+     * - indexKey: MQ 待消费时间片索引 Key（thumb:mq:pending:slices）
+     * - expireSeconds: 保留时间（秒）
+     * - sliceId: 时间片ID
+     * - blogId: 博客ID
+     * - delta: 变化量
+     */
+    private static final String MQ_PENDING_COUNT_FUNCTION = """
+            local function addPendingCount(countKey, indexKey, expireSeconds, sliceId, blogId, delta)
+                redis.call('HINCRBY', countKey, blogId, delta)
+                redis.call('EXPIRE', countKey, expireSeconds)
+                redis.call('ZADD', indexKey, sliceId, sliceId)
+            end
+            """;
+
     /**
      * 点赞 Lua 脚本 - MQ
      * KEYS[1]       -- 用户点赞状态键
+     * KEYS[2]       -- MQ 待消费点赞数变化量键（thumb:mq:count:{sliceId}）
+     * KEYS[3]       -- MQ 待消费时间片索引键
+     * KEYS[4]       -- 博客点赞数增量分片键
      * ARGV[1]       -- 博客 ID
+     * ARGV[2]       -- 待消费变化量保留时间（秒）
+     * ARGV[3]       -- 时间片 ID
+     * ARGV[4]       -- 增量分片过期时间点（epoch 秒）
      * 返回:
      * -1: 已点赞
      * 1: 操作成功
      */
-    public static final RedisScript<Long> THUMB_SCRIPT_MQ = new DefaultRedisScript<>("""  
+    public static final RedisScript<Long> THUMB_SCRIPT_MQ = new DefaultRedisScript<>(
+            THUMB_COUNT_FUNCTION + MQ_PENDING_COUNT_FUNCTION + """  
                 local userThumbKey = KEYS[1]  
                 local blogId = ARGV[1]  
           
@@ -27,20 +74,29 @@ public class RedisLuaScript {
                     return -1  
                 end  
           
-                -- 添加点赞记录  
+                -- 添加点赞记录，待消费点赞数、点赞数 +1  
                 redis.call("HSET", userThumbKey, blogId, 1)  
+                addPendingCount(KEYS[2], KEYS[3], ARGV[2], ARGV[3], blogId, 1)  
+                addThumbCount(KEYS[4], 1, ARGV[4])  
                 return 1  
         """, Long.class);
 
     /**
      * 取消点赞 Lua 脚本 - MQ
      * KEYS[1]       -- 用户点赞状态键
+     * KEYS[2]       -- MQ 待消费点赞数变化量键（thumb:mq:count:{sliceId}）
+     * KEYS[3]       -- MQ 待消费时间片索引键
+     * KEYS[4]       -- 博客点赞数增量分片键
      * ARGV[1]       -- 博客 ID
+     * ARGV[2]       -- 待消费变化量保留时间（秒）
+     * ARGV[3]       -- 时间片 ID
+     * ARGV[4]       -- 增量分片过期时间点（epoch 秒）
      * 返回:
-     * -1: 已点赞
+     * -1: 未点赞
      * 1: 操作成功
      */
-    public static final RedisScript<Long> UNTHUMB_SCRIPT_MQ = new DefaultRedisScript<>("""  
+    public static final RedisScript<Long> UNTHUMB_SCRIPT_MQ = new DefaultRedisScript<>(
+            THUMB_COUNT_FUNCTION + MQ_PENDING_COUNT_FUNCTION + """  
         local userThumbKey = KEYS[1]  
         local blogId = ARGV[1]  
           
@@ -49,32 +105,121 @@ public class RedisLuaScript {
             return -1  
         end  
           
-        -- 删除点赞记录  
+        -- 删除点赞记录，待消费点赞数、点赞数 -1  
         redis.call("HDEL", userThumbKey, blogId)  
+        addPendingCount(KEYS[2], KEYS[3], ARGV[2], ARGV[3], blogId, -1)  
+        addThumbCount(KEYS[4], -1, ARGV[4])  
         return 1  
         """, Long.class);
 
+    /**
+     * 批量点赞 Lua 脚本 - MQ
+     * <p>
+     * 功能：一次调用按顺序原子地执行同一用户的多个点赞 / 取消点赞操作，单项失败不影响其他项，全部记在同一时间片
+     * <p>
+     * 参数说明（第 i 项，i 从 1 开始）：
+     * - KEYS[1]: 用户点赞状态 Key（thumb:user:{userId}）
+     * - KEYS[2]: MQ 待消费点赞数变化量 Key（thumb:mq:count:{sliceId}）
+     * - KEYS[3]: MQ 待消费时间片索引 Key（thumb:mq:pending:slices）
+     * - KEYS[3+i]: 第 i 项博客的点赞数增量分片 Key
+     * - ARGV[1]: 待消费变化量保留时间（秒）
+     * - ARGV[2]: 时间片ID
+     * - ARGV[3i]: 博客ID
+     * - ARGV[3i+1]: 操作类型（1=点赞，-1=取消点赞）
+     * - ARGV[3i+2]: 增量分片过期时间点（epoch 秒）
+     * <p>
+     * 返回值：与操作顺序一致的列表
+     * - 1: 操作成功
+     * - -1: 点赞时已点赞 / 取消时未点赞
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> BATCH_THUMB_SCRIPT_MQ = new DefaultRedisScript<>(
+            THUMB_COUNT_FUNCTION + MQ_PENDING_COUNT_FUNCTION + """
+            local userThumbKey = KEYS[1]
+            local results = {}
+            
+            for i = 1, (#ARGV - 2) / 3 do
+                local blogId = ARGV[3 * i]
+                local op = tonumber(ARGV[3 * i + 1])
+                local thumbed = redis.call('HEXISTS', userThumbKey, blogId) == 1
+                
+                if (op == 1 and thumbed) or (op == -1 and not thumbed) then
+                    results[i] = -1
+                else
+                    if op == 1 then
+                        redis.call('HSET', userThumbKey, blogId, 1)
+                    else
+                        redis.call('HDEL', userThumbKey, blogId)
+                    end
+                    addPendingCount(KEYS[2], KEYS[3], ARGV[1], ARGV[2], blogId, op)
+                    addThumbCount(KEYS[3 + i], op, ARGV[3 * i + 2])
+                    results[i] = 1
+                end
+            end
+            
+            return results
+            """, List.class);
+
+    /**
+     * MQ 待消费点赞数扣减 Lua 脚本
+     * <p>
+     * 功能：消费者事务提交后扣减已写入数据库的点赞数变化量，归零的 Field 删除，时间片为空时移出索引
+     * <p>
+     * 参数说明（第 i 项，i 从 1 开始）：
+     * - KEYS[1]: MQ 待消费点赞数变化量 Key（thumb:mq:count:{sliceId}）
+     * - KEYS[2]: MQ 待消费时间片索引 Key（thumb:mq:pending:slices）
+     * - ARGV[1]: 时间片ID
+     * - ARGV[2i]: 博客ID
+     * - ARGV[2i+1]: 已写入数据库的变化量
+     * <p>
+     * 返回值：
+     * - 1: 执行完成
+     */
+    public static final RedisScript<Long> MQ_PENDING_COUNT_SETTLE_SCRIPT = new DefaultRedisScript<>("""
+            -- 已过期的时间片不再计入点赞数，无需扣减
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 1
+            end
+            for i = 1, (#ARGV - 1) / 2 do
+                local blogId = ARGV[2 * i]
+                if redis.call('HINCRBY', KEYS[1], blogId, 0 - tonumber(ARGV[2 * i + 1])) == 0 then
+                    redis.call('HDEL', KEYS[1], blogId)
+                end
+            end
+            if redis.call('HLEN', KEYS[1]) == 0 then
+                redis.call('ZREM', KEYS[2], ARGV[1])
+            end
+            return 1
+            """, Long.class);
+
     /**
      * 点赞 Lua 脚本
      * <p>
      * 功能：原子性地完成点赞操作
      * 1. 检查用户是否已点赞
      * 2. 记录点赞状态到用户点赞记录
-     * 3. 写入临时点赞记录（用于后续批量同步到数据库）
+     * 3. 写入当前时间片的临时点赞记录，并登记时间片到待同步索引（用于后续批量同步到数据库）
+     * 4. 累加待同步的点赞数变化量（初始化点赞数计数器时计入尚未同步的部分）
+     * 5. 更新博客点赞数增量分片
      * <p>
      * 参数说明：
-     * - KEYS[1]: 临时点赞记录 Key（thumb:temp:{timeSlice}）
-     * - KEYS[2]: 用户点赞状态 Key（thumb:user:{userId}）
+     * - KEYS[1]: 用户点赞状态 Key（thumb:user:{userId}）
+     * - KEYS[2]: 临时点赞记录 Key（thumb:temp:{sliceId}）
+     * - KEYS[3]: 待同步点赞数变化量 Key（thumb:pending:count）
+     * - KEYS[4]: 待同步时间片索引 Key（thumb:pending:slices）
+     * - KEYS[5]: 博客点赞数增量分片 Key（thumb:count:{blogId}:{generation}:{shard}）
      * - ARGV[1]: 用户ID
      * - ARGV[2]: 博客ID
+     * - ARGV[3]: 时间片ID
+     * - ARGV[4]: 增量分片过期时间点（epoch 秒）
      * <p>
      * 返回值：
      * - 1: 操作成功
      * - -1: 已点赞，操作失败
      */
-    public static final RedisScript<Long> THUMB_SCRIPT = new DefaultRedisScript<>("""
-            local tempThumbKey = KEYS[1]
-            local userThumbKey = KEYS[2]
+    public static final RedisScript<Long> THUMB_SCRIPT = new DefaultRedisScript<>(THUMB_COUNT_FUNCTION + """
+            local userThumbKey = KEYS[1]
+            local tempThumbKey = KEYS[2]
             local userId = ARGV[1]
             local blogId = ARGV[2]
             
@@ -90,9 +235,14 @@ public class RedisLuaScript {
             -- 计算新值（+1表示点赞）
             local newValue = oldValue + 1
             
-            -- 原子性更新：写入临时记录 + 标记用户已点赞
+            -- 原子性更新：写入临时记录 + 登记待同步时间片 + 标记用户已点赞 + 点赞数 +1
             redis.call('HSET', tempThumbKey, hashKey, newValue)
+            redis.call('ZADD', KEYS[4], ARGV[3], ARGV[3])
+            if redis.call('HINCRBY', KEYS[3], blogId, 1) == 0 then
+                redis.call('HDEL', KEYS[3], blogId)
+            end
             redis.call('HSET', userThumbKey, blogId, 1)
+            addThumbCount(KEYS[5], 1, ARGV[4])
             
             return 1
             """, Long.class);
@@ -103,21 +253,28 @@ public class RedisLuaScript {
      * 功能：原子性地完成取消点赞操作
      * 1. 检查用户是否已点赞
      * 2. 删除用户点赞记录
-     * 3. 写入临时取消点赞记录（用于后续批量同步到数据库）
+     * 3. 写入当前时间片的临时取消点赞记录，并登记时间片到待同步索引（用于后续批量同步到数据库）
+     * 4. 累加待同步的点赞数变化量（初始化点赞数计数器时计入尚未同步的部分）
+     * 5. 更新博客点赞数增量分片
      * <p>
      * 参数说明：
-     * - KEYS[1]: 临时点赞记录 Key（thumb:temp:{timeSlice}）
-     * - KEYS[2]: 用户点赞状态 Key（thumb:user:{userId}）
+     * - KEYS[1]: 用户点赞状态 Key（thumb:user:{userId}）
+     * - KEYS[2]: 临时点赞记录 Key（thumb:temp:{sliceId}）
+     * - KEYS[3]: 待同步点赞数变化量 Key（thumb:pending:count）
+     * - KEYS[4]: 待同步时间片索引 Key（thumb:pending:slices）
+     * - KEYS[5]: 博客点赞数增量分片 Key（thumb:count:{blogId}:{generation}:{shard}）
      * - ARGV[1]: 用户ID
      * - ARGV[2]: 博客ID
+     * - ARGV[3]: 时间片ID
+     * - ARGV[4]: 增量分片过期时间点（epoch 秒）
      * <p>
      * 返回值：
      * - 1: 操作成功
      * - -1: 未点赞，操作失败
      */
-    public static final RedisScript<Long> CANCEL_THUMB_SCRIPT = new DefaultRedisScript<>("""
-            local tempThumbKey = KEYS[1]
-            local userThumbKey = KEYS[2]
+    public static final RedisScript<Long> CANCEL_THUMB_SCRIPT = new DefaultRedisScript<>(THUMB_COUNT_FUNCTION + """
+            local userThumbKey = KEYS[1]
+            local tempThumbKey = KEYS[2]
             local userId = ARGV[1]
             local blogId = ARGV[2]
             
@@ -133,10 +290,233 @@ public class RedisLuaScript {
             -- 计算新值（-1表示取消点赞）
             local newValue = oldValue - 1
             
-            -- 原子性更新：写入临时记录 + 删除用户点赞标记
+            -- 原子性更新：写入临时记录 + 删除用户点赞标记 + 点赞数 -1
             redis.call('HSET', tempThumbKey, hashKey, newValue)
+            redis.call('ZADD', KEYS[4], ARGV[3], ARGV[3])
+            if redis.call('HINCRBY', KEYS[3], blogId, -1) == 0 then
+                redis.call('HDEL', KEYS[3], blogId)
+            end
             redis.call('HDEL', userThumbKey, blogId)
+            addThumbCount(KEYS[5], -1, ARGV[4])
             
             return 1
             """, Long.class);
+
+    /**
+     * 点赞数增量分片 Lua 脚本
+     * <p>
+     * 功能：增减一个增量分片，并设置为本代结束时过期；用于点赞记录直接写数据库的同步点赞服务，
+     * 异步与 MQ 点赞服务在点赞脚本中一并更新
+     * <p>
+     * 参数说明：
+     * - KEYS[1]: 博客点赞数增量分片 Key（thumb:count:{blogId}:{generation}:{shard}）
+     * - ARGV[1]: 变化量
+     * - ARGV[2]: 过期时间点（epoch 秒）
+     * <p>
+     * 返回值：
+     * - 分片的新值
+     */
+    public static final RedisScript<Long> THUMB_COUNT_INCR_SCRIPT = new DefaultRedisScript<>("""
+            local value = redis.call('INCRBY', KEYS[1], ARGV[1])
+            redis.call('EXPIREAT', KEYS[1], ARGV[2])
+            return value
+            """, Long.class);
+
+    /**
+     * 批量点赞 Lua 脚本
+     * <p>
+     * 功能：一次调用按顺序原子地执行同一用户的多个点赞 / 取消点赞操作，单项失败不影响其他项；
+     * 每项的处理与 {@link #THUMB_SCRIPT} / {@link #CANCEL_THUMB_SCRIPT} 一致，全部写入同一时间片
+     * <p>
+     * 参数说明（第 i 项，i 从 1 开始）：
+     * - KEYS[1]: 用户点赞状态 Key（thumb:user:{userId}）
+     * - KEYS[2]: 临时点赞记录 Key（thumb:temp:{sliceId}）
+     * - KEYS[3]: 待同步点赞数变化量 Key（thumb:pending:count）
+     * - KEYS[4]: 待同步时间片索引 Key（thumb:pending:slices）
+     * - KEYS[4+i]: 第 i 项博客的点赞数增量分片 Key
+     * - ARGV[1]: 用户ID
+     * - ARGV[2]: 时间片ID
+     * - ARGV[3i]: 博客ID
+     * - ARGV[3i+1]: 操作类型（1=点赞，-1=取消点赞）
+     * - ARGV[3i+2]: 增量分片过期时间点（epoch 秒）
+     * <p>
+     * 返回值：与操作顺序一致的列表
+     * - 1: 操作成功
+     * - -1: 点赞时已点赞 / 取消时未点赞
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> BATCH_THUMB_SCRIPT = new DefaultRedisScript<>(THUMB_COUNT_FUNCTION + """
+            local userThumbKey = KEYS[1]
+            local tempThumbKey = KEYS[2]
+            local userId = ARGV[1]
+            local results = {}
+            
+            for i = 1, (#ARGV - 2) / 3 do
+                local blogId = ARGV[3 * i]
+                local op = tonumber(ARGV[3 * i + 1])
+                local thumbed = redis.call('HEXISTS', userThumbKey, blogId) == 1
+                
+                if (op == 1 and thumbed) or (op == -1 and not thumbed) then
+                    results[i] = -1
+                else
+                    -- 累加临时记录：1=点赞，-1=取消点赞，0=无变化
+                    local hashKey = userId .. ':' .. blogId
+                    local oldValue = tonumber(redis.call('HGET', tempThumbKey, hashKey) or 0)
+                    redis.call('HSET', tempThumbKey, hashKey, oldValue + op)
+                    redis.call('ZADD', KEYS[4], ARGV[2], ARGV[2])
+                    if redis.call('HINCRBY', KEYS[3], blogId, op) == 0 then
+                        redis.call('HDEL', KEYS[3], blogId)
+                    end
+                    
+                    if op == 1 then
+                        redis.call('HSET', userThumbKey, blogId, 1)
+                    else
+                        redis.call('HDEL', userThumbKey, blogId)
+                    end
+                    addThumbCount(KEYS[4 + i], op, ARGV[3 * i + 2])
+                    results[i] = 1
+                end
+            end
+            
+            return results
+            """, List.class);
+
+    /**
+     * 删除已同步的临时点赞记录 Lua 脚本
+     * <p>
+     * 功能：同步任务每块提交后删除已处理的 Field，并按删除时的值原子地扣减待同步点赞数变化量，
+     * 归零的变化量 Field 一并删除；读取之后被改写的 Field 保留，由下一次同步处理
+     * <p>
+     * 参数说明：
+     * - KEYS[1]: 临时点赞记录 Key（thumb:temp:{sliceId}）
+     * - KEYS[2]: 待同步点赞数变化量 Key（thumb:pending:count）
+     * - ARGV[3i-2]: 第 i 个已处理 Field 的用户ID
+     * - ARGV[3i-1]: 第 i 个已处理 Field 的博客ID
+     * - ARGV[3i]: 第 i 个已处理 Field 读取时的操作类型
+     * <p>
+     * 返回值：
+     * - 删除的 Field 数量
+     */
+    public static final RedisScript<Long> TEMP_THUMB_REMOVE_SCRIPT = new DefaultRedisScript<>("""
+            local removed = 0
+            for i = 1, #ARGV / 3 do
+                local blogId = ARGV[3 * i - 1]
+                local hashKey = ARGV[3 * i - 2] .. ':' .. blogId
+                local current = redis.call('HGET', KEYS[1], hashKey)
+                if current and tonumber(current) == tonumber(ARGV[3 * i]) then
+                    local value = tonumber(current)
+                    if value ~= 0 and redis.call('HINCRBY', KEYS[2], blogId, 0 - value) == 0 then
+                        redis.call('HDEL', KEYS[2], blogId)
+                    end
+                    removed = removed + redis.call('HDEL', KEYS[1], hashKey)
+                end
+            end
+            return removed
+            """, Long.class);
+
+    /**
+     * 移除已同步的时间片 Lua 脚本
+     * <p>
+     * 功能：临时点赞记录已全部删除时移出待同步索引；
+     * 仍有 Field（HSCAN 游标经过之后才写入）时保留时间片，由下一次同步处理
+     * <p>
+     * 参数说明：
+     * - KEYS[1]: 临时点赞记录 Key（thumb:temp:{sliceId}）
+     * - KEYS[2]: 待同步时间片索引 Key（thumb:pending:slices）
+     * - ARGV[1]: 时间片ID
+     * <p>
+     * 返回值：
+     * - 1: 已移除
+     * - 0: 仍有未同步的 Field，保留
+     */
+    public static final RedisScript<Long> TEMP_THUMB_SLICE_REMOVE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('HLEN', KEYS[1]) > 0 then
+                return 0
+            end
+            redis.call('ZREM', KEYS[2], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * 时间片同步锁续期 Lua 脚本
+     * <p>
+     * 功能：仍由当前执行者持有锁时重置租期，锁已过期或被他人持有时不做修改
+     * <p>
+     * 参数说明：
+     * - KEYS[1]: 时间片同步锁 Key（thumb:sync:lock:{sliceId}）
+     * - ARGV[1]: 持有者令牌
+     * - ARGV[2]: 租期（毫秒）
+     * <p>
+     * 返回值：
+     * - 1: 续期成功
+     * - 0: 已不再持有锁
+     */
+    public static final RedisScript<Long> SYNC_LOCK_RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 时间片同步锁释放 Lua 脚本
+     * <p>
+     * 功能：仅当锁仍由当前执行者持有时删除，不会误删租期过期后被他人获取的锁
+     * <p>
+     * 参数说明：
+     * - KEYS[1]: 时间片同步锁 Key（thumb:sync:lock:{sliceId}）
+     * - ARGV[1]: 持有者令牌
+     * <p>
+     * 返回值：
+     * - 1: 释放成功
+     * - 0: 已不再持有锁
+     */
+    public static final RedisScript<Long> SYNC_LOCK_RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 待同步变化量结算登记 Lua 脚本
+     * <p>
+     * 功能：同步任务 / MQ 消费者写入数据库之前登记一次结算，租期截止时间按 Redis 服务器时间计算，并递增结算序号
+     * <p>
+     * 参数说明：
+     * - KEYS[1]: 进行中的结算 Key（thumb:pending:settling）
+     * - KEYS[2]: 结算序号 Key（thumb:pending:settle:seq）
+     * - ARGV[1]: 结算令牌
+     * - ARGV[2]: 租期（毫秒）
+     * <p>
+     * 返回值：
+     * - 递增后的结算序号
+     */
+    public static final RedisScript<Long> PENDING_SETTLE_BEGIN_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            redis.call('ZADD', KEYS[1], now + tonumber(ARGV[2]), ARGV[1])
+            return redis.call('INCR', KEYS[2])
+            """, Long.class);
+
+    /**
+     * 待同步变化量结算状态 Lua 脚本
+     * <p>
+     * 功能：清理租期已截止的登记（进程崩溃遗留），返回结算序号与进行中的结算数量，
+     * 初始化点赞数计数器前后各调用一次
+     * <p>
+     * 参数说明：
+     * - KEYS[1]: 进行中的结算 Key（thumb:pending:settling）
+     * - KEYS[2]: 结算序号 Key（thumb:pending:settle:seq）
+     * <p>
+     * 返回值：
+     * - [结算序号, 进行中的结算数量]
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> PENDING_SETTLE_STATE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)
+            return {tonumber(redis.call('GET', KEYS[2]) or 0), redis.call('ZCARD', KEYS[1])}
+            """, List.class);
 }
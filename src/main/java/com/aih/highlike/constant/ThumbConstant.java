@@ -17,15 +17,167 @@ public interface ThumbConstant {
 
     /**
      * 临时点赞记录 Redis Key 前缀（用于异步批量同步）
-     * Redis Hash 结构：thumb:temp:{timeSlice} -> {userId:blogId: operationType}
-     * 示例：thumb:temp:14:30:20 -> {"1001:1": 1, "1001:2": -1}
+     * Redis Hash 结构：thumb:temp:{sliceId} -> {userId:blogId: operationType}
+     * 示例：thumb:temp:1761805820 -> {"1001:1": 1, "1001:2": -1}
      * <p>
      * 说明：
-     * - timeSlice: 时间片，格式为 HH:mm:ss，按10秒分片
+     * - sliceId: 时间片ID，epoch 秒按10秒向下取整，全局唯一且与时区无关
      * - operationType: 1=点赞，-1=取消点赞，0=无变化
      */
     String TEMP_THUMB_KEY_PREFIX = "thumb:temp:%s";
 
+    /**
+     * 待同步点赞数变化量 Redis Key
+     * Redis Hash 结构：thumb:pending:count -> {blogId: delta}
+     * 示例：thumb:pending:count -> {"1": 2, "2": -1}
+     * <p>
+     * 说明：
+     * - 点赞 Lua 脚本与临时点赞记录一起原子累加，记录全部时间片中尚未同步到数据库的点赞数变化量，归零的 Field 删除
+     * - 同步任务删除已处理的临时记录时原子扣减
+     * - 初始化点赞数计数器时只需一次 HMGET，与积压的时间片数量无关
+     */
+    String PENDING_THUMB_COUNT_KEY = "thumb:pending:count";
+
+    /**
+     * 时间片长度（秒）
+     */
+    long THUMB_SLICE_SECONDS = 10;
+
+    /**
+     * 待同步时间片索引 Redis Key
+     * Redis ZSet 结构：thumb:pending:slices -> {sliceId: sliceId}
+     * 示例：thumb:pending:slices -> {"1761805810": 1761805810, "1761805820": 1761805820}
+     * <p>
+     * 说明：
+     * - 点赞 Lua 脚本写入临时记录时登记所在时间片
+     * - 同步任务与补偿任务按时间片顺序消费，同步完成后移除，无需扫描 Key 空间
+     */
+    String PENDING_THUMB_SLICES_KEY = "thumb:pending:slices";
+
+    /**
+     * MQ 待消费点赞数变化量 Redis Key 前缀
+     * Redis Hash 结构：thumb:mq:count:{sliceId} -> {blogId: delta}
+     * 示例：thumb:mq:count:1761805820 -> {"1": 2, "2": -1}
+     * <p>
+     * 说明：
+     * - MQ 点赞 Lua 脚本按时间片累加已发送、尚未被消费者写入数据库的点赞数变化量
+     * - 消费者事务提交后按事件中的时间片扣减，归零的 Field 删除，时间片为空时移出索引
+     * - 初始化点赞数计数器时与数据库点赞数相加
+     */
+    String MQ_PENDING_THUMB_COUNT_KEY_PREFIX = "thumb:mq:count:%s";
+
+    /**
+     * MQ 待消费时间片索引 Redis Key
+     * Redis ZSet 结构：thumb:mq:pending:slices -> {sliceId: sliceId}
+     */
+    String MQ_PENDING_THUMB_SLICES_KEY = "thumb:mq:pending:slices";
+
+    /**
+     * MQ 待消费点赞数变化量的保留时间（秒）
+     * <p>
+     * 超过该时间仍未被消费的事件视为进入死信队列，不再计入点赞数
+     */
+    long MQ_PENDING_THUMB_EXPIRE_SECONDS = 600;
+
+    /**
+     * 进行中的待同步变化量结算 Redis Key
+     * Redis ZSet 结构：thumb:pending:settling -> {token: 租期截止时间（epoch 毫秒）}
+     * <p>
+     * 说明：
+     * - 同步任务与 MQ 消费者在写入数据库之前登记，扣减待同步变化量之后注销
+     * - 登记到注销之间数据库与待同步变化量可能同时包含同一批操作，初始化点赞数计数器时发现有进行中的结算则不写入基数
+     * - 进程崩溃未注销的登记在租期截止后视为失效
+     */
+    String PENDING_SETTLING_KEY = "thumb:pending:settling";
+
+    /**
+     * 待同步变化量结算序号 Redis Key
+     * Redis String 结构：thumb:pending:settle:seq -> 已开始的结算次数
+     * <p>
+     * 初始化点赞数计数器前后各读取一次，不一致说明期间开始过结算，本次不写入基数
+     */
+    String PENDING_SETTLE_SEQ_KEY = "thumb:pending:settle:seq";
+
+    /**
+     * 待同步变化量结算的租期（毫秒）
+     */
+    long PENDING_SETTLE_LEASE_MILLIS = 60_000;
+
+    /**
+     * 补偿任务进度 Redis Key
+     * Redis String 结构：thumb:compensation:checkpoint -> 最后处理的时间片ID
+     * <p>
+     * 说明：
+     * - 补偿任务每处理完一批时间片记录一次，进程中断后下次从断点之后继续
+     * - 一轮补偿正常结束后删除，下一轮从头重试失败的时间片
+     */
+    String COMPENSATION_CHECKPOINT_KEY = "thumb:compensation:checkpoint";
+
+    /**
+     * 补偿任务进度过期时间（秒），避免长期遗留的断点跳过失败的时间片
+     */
+    long COMPENSATION_CHECKPOINT_EXPIRE_SECONDS = 2 * 24 * 3600;
+
+    /**
+     * 时间片同步锁 Redis Key 前缀
+     * Redis String 结构：thumb:sync:lock:{sliceId} -> 持有者令牌
+     * <p>
+     * 说明：
+     * - 同步任务与补偿任务（以及多个实例）同步同一时间片前先加锁，未抢到锁时跳过该时间片
+     * - 避免两个执行者读到同一批 Field，各自按查询结果累加点赞数导致重复扣减
+     */
+    String SYNC_SLICE_LOCK_KEY_PREFIX = "thumb:sync:lock:%s";
+
+    /**
+     * 博客点赞数计数器 Redis Key 前缀
+     * Redis String 结构：
+     * - 基数：thumb:count:{blogId}:{generation} -> 本代开始时的点赞数
+     * - 增量：thumb:count:{blogId}:{generation}:{shard} -> 本代开始后的点赞数变化量
+     * - 分片标记：thumb:count:{blogId}:{generation}:sharded -> 1，本代写入过分片 1~7 时存在
+     * 示例：thumb:count:1:488973 -> 128，thumb:count:1:488973:3 -> 5
+     * <p>
+     * 说明：
+     * - 点赞数 = 基数 + 各增量分片之和，数据库 thumbCount 仅作为持久化落地
+     * - 计数器按代（generation）轮换，每代的基数与增量 Key 都带有本代结束时的过期时间，
+     *   过期后由读取方重新初始化基数，修正写入失败、并发初始化等带来的偏差
+     * - 异步与 MQ 点赞脚本与点赞记录一起原子写入增量分片（分片 Key 在 KEYS 中声明），
+     *   同步点赞服务在事务提交后单独写入；非热点博客只写分片 0，热点博客随机写入一个分片
+     * - 热点博客写入分片之前先设置分片标记，读取时只有带标记的博客才读取分片 1~7，其余博客只读基数与分片 0
+     */
+    String THUMB_COUNT_KEY_PREFIX = "thumb:count:";
+
+    /**
+     * 点赞数计数器每代时长（秒）
+     * <p>
+     * 每个博客按ID错开换代时间，避免所有计数器同时重建
+     */
+    long THUMB_COUNT_GENERATION_SECONDS = 3600;
+
+    /**
+     * 点赞数计数器在本代结束后额外保留的时间（秒），容忍节点之间的时钟偏差
+     */
+    long THUMB_COUNT_EXPIRE_GRACE_SECONDS = 60;
+
+    /**
+     * 热点博客点赞数增量分片数
+     */
+    int THUMB_COUNT_SHARDS = 8;
+
+    /**
+     * 点赞数计数器分片标记后缀
+     */
+    String THUMB_COUNT_SHARDED_SUFFIX = ":sharded";
+
+    /**
+     * 热点博客点赞数的本地缓存时间（毫秒）
+     */
+    long THUMB_COUNT_SHARD_SUM_CACHE_MILLIS = 1000;
+
+    /**
+     * 批量点赞单次请求的最大操作数
+     */
+    int BATCH_THUMB_MAX_SIZE = 100;
+
     /**
      * 未点赞标识
      * <p>
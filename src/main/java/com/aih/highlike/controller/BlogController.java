@@ -48,7 +48,7 @@ public class BlogController {
     @GetMapping("/list")
     @Operation(summary = "获取博客列表")
     public BaseResponse<List<BlogVO>> listBlogs(HttpServletRequest request) {
-        List<Blog> blogList = blogService.list();
+        List<Blog> blogList = blogService.listBlogs();
         List<BlogVO> blogVOList = blogService.getBlogVOList(blogList, request);
         return ResultUtils.success(blogVOList);
     }
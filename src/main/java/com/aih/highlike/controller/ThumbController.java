@@ -2,9 +2,14 @@ package com.aih.highlike.controller;
 
 import com.aih.highlike.common.BaseResponse;
 import com.aih.highlike.common.ResultUtils;
+import com.aih.highlike.constant.ThumbConstant;
 import com.aih.highlike.exception.BusinessException;
 import com.aih.highlike.exception.ErrorCode;
+import com.aih.highlike.model.dto.thumb.ThumbBatchItem;
+import com.aih.highlike.model.dto.thumb.ThumbBatchRequest;
 import com.aih.highlike.model.dto.thumb.ThumbRequest;
+import com.aih.highlike.model.enums.ThumbOperationType;
+import com.aih.highlike.model.vo.ThumbBatchResultVO;
 import com.aih.highlike.service.ThumbService;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Counter;
@@ -17,6 +22,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 /**
  * 点赞控制器
  * @author zengliqiang
@@ -79,4 +86,38 @@ public class ThumbController {
         boolean result = thumbService.cancelThumb(thumbRequest.getBlogId(), request);
         return ResultUtils.success(result);
     }
+
+    /**
+     * 批量点赞 / 取消点赞
+     * <p>
+     * 按顺序执行，返回与请求顺序一致的单项结果
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "批量点赞")
+    public BaseResponse<List<ThumbBatchResultVO>> batchThumb(@RequestBody ThumbBatchRequest thumbBatchRequest,
+                                                             HttpServletRequest request) {
+        if (thumbBatchRequest == null || thumbBatchRequest.getItems() == null
+                || thumbBatchRequest.getItems().isEmpty()) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        List<ThumbBatchItem> items = thumbBatchRequest.getItems();
+        if (items.size() > ThumbConstant.BATCH_THUMB_MAX_SIZE) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "单次最多操作 " + ThumbConstant.BATCH_THUMB_MAX_SIZE + " 项");
+        }
+        for (ThumbBatchItem item : items) {
+            if (item == null || item.getBlogId() == null || item.getBlogId() <= 0 || item.getType() == null
+                    || ThumbOperationType.fromValue(item.getType()) == ThumbOperationType.NONE) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "博客ID或操作类型无效");
+            }
+        }
+        List<ThumbBatchResultVO> results = thumbService.batchThumb(items, request);
+        for (ThumbBatchResultVO result : results) {
+            if (Boolean.TRUE.equals(result.getSuccess())) {
+                successCounter.increment();
+            } else {
+                failureCounter.increment();
+            }
+        }
+        return ResultUtils.success(results);
+    }
 }
@@ -1,16 +1,26 @@
 package com.aih.highlike.job;
 
-import cn.hutool.core.collection.CollUtil;
+import com.aih.highlike.config.ThumbProperties;
 import com.aih.highlike.constant.ThumbConstant;
-import com.aih.highlike.util.RedisKeyUtil;
+import com.aih.highlike.manager.thumb.ThumbSliceClock;
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 点赞数据补偿任务
@@ -18,64 +28,192 @@ import java.util.Set;
  * 功能：处理未同步的临时点赞记录
  * <p>
  * 执行频率：每天凌晨 2 点
+ * <p>
+ * 以待同步索引中的时间片ID为游标增量处理：
+ * 1. 每批读取 compensation-batch-size 个时间片，按 compensation-slices-per-second 限速同步
+ * 2. 每批处理完记录断点（thumb:compensation:checkpoint），进程中断后下次从断点之后继续
+ * 3. 时间片必须按顺序生效，遇到失败或正被其他任务同步的时间片即停止本轮，断点不越过该时间片
+ * 4. 导出耗时（thumb.compensation.duration）和积压时间片数量（thumb.compensation.backlog）指标
+ * 5. 在专用线程中执行，限速等待不会阻塞同步任务和缓存任务的调度
  */
 @Slf4j
 @Component
 public class ThumbCompensationJob {
 
+    @Resource
+    private ThumbSyncJob thumbSyncJob;
+
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
     @Resource
-    private ThumbSyncJob thumbSyncJob;
+    private ThumbProperties thumbProperties;
+
+    @Resource
+    private ThumbSliceClock thumbSliceClock;
+
+    @Resource
+    private MeterRegistry meterRegistry;
 
     /**
-     * 补偿任务（每天凌晨 2 点执行）
+     * 最近一次补偿结束时仍待补偿的时间片数量
      */
-    @Scheduled(cron = "0 0 2 * * *")
-    public void compensateThumbData() {
-        log.info("开始执行点赞数据补偿任务");
+    private final AtomicLong backlog = new AtomicLong();
 
-        try {
-            // 扫描所有临时点赞记录的 Key
-            String pattern = RedisKeyUtil.getTempThumbKey("*");
-            Set<String> thumbKeys = redisTemplate.keys(pattern);
+    /**
+     * 补偿专用线程，补偿耗时较长，不占用同步任务和缓存任务共用的调度线程
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "thumb-compensation");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-            if (CollUtil.isEmpty(thumbKeys)) {
-                log.info("没有需要补偿的临时数据");
-                return;
-            }
+    /**
+     * 是否有补偿正在执行，上一轮未结束时跳过本轮
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
 
-            log.info("发现 {} 个时间片的临时数据需要补偿", thumbKeys.size());
+    private Timer durationTimer;
 
-            // 提取时间片
-            Set<String> timeSlices = new HashSet<>();
-            String prefix = String.format(ThumbConstant.TEMP_THUMB_KEY_PREFIX, "");
-            for (String key : thumbKeys) {
-                if (key != null) {
-                    String timeSlice = key.replace(prefix, "");
-                    timeSlices.add(timeSlice);
-                }
+    @PostConstruct
+    public void registerMetrics() {
+        durationTimer = Timer.builder("thumb.compensation.duration")
+                .description("点赞数据补偿任务耗时")
+                .register(meterRegistry);
+        Gauge.builder("thumb.compensation.backlog", backlog, AtomicLong::get)
+                .description("待补偿的时间片数量")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 触发补偿任务（每天凌晨 2 点执行）
+     * <p>
+     * 调度线程只负责提交，补偿在专用线程中执行
+     */
+    @Scheduled(cron = "0 0 2 * * *")
+    public void scheduleCompensation() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("上一轮点赞数据补偿任务尚未结束，跳过本轮");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                compensateThumbData();
+            } finally {
+                running.set(false);
             }
+        });
+    }
+
+    /**
+     * 补偿任务
+     * <p>
+     * 按顺序消费待同步索引中早于上一个时间片的全部时间片（同步任务失败后遗留的数据），
+     * 不扫描 Key 空间；某个时间片失败或被跳过时停止，避免较新的取消点赞先于较旧的点赞生效
+     */
+    public void compensateThumbData() {
+        log.info("开始执行点赞数据补偿任务");
+        long start = System.nanoTime();
+
+        try {
+            // 跳过最近两个时间片，留给同步任务处理
+            long maxSliceId = thumbSliceClock.currentSliceId() - 2 * ThumbConstant.THUMB_SLICE_SECONDS;
+            RateLimiter rateLimiter = RateLimiter.create(thumbProperties.getCompensationSlicesPerSecond());
 
-            // 逐个处理时间片
             int successCount = 0;
-            int failCount = 0;
-            
-            for (String timeSlice : timeSlices) {
-                try {
-                    log.info("补偿时间片：{}", timeSlice);
-                    thumbSyncJob.syncByTimeSlice(timeSlice);
+            // 从断点之后继续读取
+            long minSliceId = readCheckpoint() + 1;
+            backlog.set(thumbSyncJob.countPendingSlices(minSliceId, maxSliceId));
+            Long stoppedSliceId = null;
+            while (stoppedSliceId == null) {
+                List<Long> sliceIds = thumbSyncJob.listPendingSlices(
+                        minSliceId, maxSliceId, thumbProperties.getCompensationBatchSize());
+                if (sliceIds.isEmpty()) {
+                    break;
+                }
+                Long lastSyncedSliceId = null;
+                for (Long sliceId : sliceIds) {
+                    rateLimiter.acquire();
+                    if (!compensateSlice(sliceId)) {
+                        stoppedSliceId = sliceId;
+                        break;
+                    }
+                    lastSyncedSliceId = sliceId;
                     successCount++;
-                } catch (Exception e) {
-                    log.error("补偿时间片 {} 失败", timeSlice, e);
-                    failCount++;
+                    backlog.decrementAndGet();
+                }
+                if (lastSyncedSliceId != null) {
+                    minSliceId = lastSyncedSliceId + 1;
+                    writeCheckpoint(lastSyncedSliceId);
                 }
             }
 
-            log.info("点赞数据补偿任务完成，成功：{}，失败：{}", successCount, failCount);
+            if (stoppedSliceId == null) {
+                // 本轮正常结束，清除断点
+                redisTemplate.delete(ThumbConstant.COMPENSATION_CHECKPOINT_KEY);
+                backlog.set(0);
+                log.info("点赞数据补偿任务完成，成功：{}", successCount);
+            } else {
+                // 断点停在该时间片之前，下一轮从该时间片重试，积压为剩余的时间片
+                backlog.set(thumbSyncJob.countPendingSlices(stoppedSliceId, maxSliceId));
+                log.warn("点赞数据补偿任务在时间片 {} 处停止，成功：{}，剩余：{}",
+                        stoppedSliceId, successCount, backlog.get());
+            }
         } catch (Exception e) {
             log.error("点赞数据补偿任务执行失败", e);
+        } finally {
+            durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
+
+    /**
+     * 补偿单个时间片
+     *
+     * @param sliceId 时间片ID
+     * @return 是否已同步，失败或正被其他任务同步时返回 false
+     */
+    private boolean compensateSlice(long sliceId) {
+        try {
+            log.info("补偿时间片：{}", sliceId);
+            if (thumbSyncJob.syncBySlice(sliceId)) {
+                return true;
+            }
+            log.info("时间片 {} 正在被其他任务同步，停止本轮补偿", sliceId);
+        } catch (Exception e) {
+            log.error("补偿时间片 {} 失败，停止本轮补偿", sliceId, e);
+        }
+        return false;
+    }
+
+    /**
+     * 读取补偿断点
+     * <p>
+     * Redis 操作：GET thumb:compensation:checkpoint
+     *
+     * @return 上次中断前最后处理的时间片ID，无断点时返回 -1
+     */
+    private long readCheckpoint() {
+        Object checkpoint = redisTemplate.opsForValue().get(ThumbConstant.COMPENSATION_CHECKPOINT_KEY);
+        if (checkpoint == null) {
+            return -1;
+        }
+        log.info("从断点之后继续补偿，断点时间片：{}", checkpoint);
+        return Long.parseLong(checkpoint.toString());
+    }
+
+    /**
+     * 记录补偿断点
+     * <p>
+     * Redis 操作：SET thumb:compensation:checkpoint {sliceId} EX {seconds}
+     */
+    private void writeCheckpoint(long sliceId) {
+        redisTemplate.opsForValue().set(ThumbConstant.COMPENSATION_CHECKPOINT_KEY, sliceId,
+                ThumbConstant.COMPENSATION_CHECKPOINT_EXPIRE_SECONDS, TimeUnit.SECONDS);
+    }
 }
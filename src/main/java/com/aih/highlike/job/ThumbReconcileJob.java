@@ -75,7 +75,7 @@ public class ThumbReconcileJob {
      */
     private void sendCompensationMessage(Long userId, Sets.SetView<Long> difference) {
         difference.forEach(blogId -> {
-            ThumbEvent thumbEvent = new ThumbEvent(userId, blogId, ThumbEvent.EventType.INCR, LocalDateTime.now());
+            ThumbEvent thumbEvent = new ThumbEvent(userId, blogId, ThumbEvent.EventType.INCR, LocalDateTime.now(), null);
             pulsarTemplate.sendAsync("thumb-topic", thumbEvent)
                     .exceptionally(ex->{
                         log.error("发送补偿消息失败：userId={}, blogId={}", userId, blogId, ex);
@@ -1,8 +1,15 @@
 package com.aih.highlike.job;
 
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.text.StrPool;
+import cn.hutool.core.util.IdUtil;
+import com.aih.highlike.config.ThumbProperties;
+import com.aih.highlike.constant.RedisLuaScript;
+import com.aih.highlike.constant.ThumbConstant;
+import com.aih.highlike.exception.BusinessException;
+import com.aih.highlike.exception.ErrorCode;
+import com.aih.highlike.manager.cache.ThumbCountManager;
+import com.aih.highlike.manager.thumb.ThumbSliceClock;
 import com.aih.highlike.mapper.BlogMapper;
 import com.aih.highlike.model.entity.Thumb;
 import com.aih.highlike.model.enums.ThumbOperationType;
@@ -11,12 +18,15 @@ import com.aih.highlike.util.RedisKeyUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 点赞数据同步定时任务
@@ -38,100 +48,281 @@ public class ThumbSyncJob {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private ThumbProperties thumbProperties;
+
+    @Resource
+    private ThumbSliceClock thumbSliceClock;
+
+    @Resource
+    private ThumbCountManager thumbCountManager;
+
+    /**
+     * 单次同步最多处理的时间片数量，积压时分多次追赶
+     */
+    private static final int MAX_SLICES_PER_RUN = 60;
+
     /**
      * 定时同步任务（每 10 秒执行一次）
      * <p>
-     * 处理上一个时间片的数据，避免与正在写入的数据冲突
+     * 按顺序处理待同步索引中当前时间片之前的所有时间片，避免与正在写入的数据冲突
+     * <p>
+     * 每个时间片分块提交，不持有跨时间片的大事务；某个时间片失败或正被其他任务同步时停止本次同步，
+     * 下次从该时间片继续，保证时间片严格按顺序生效（较新的取消点赞不会先于较旧的点赞写入数据库）
      */
     @Scheduled(fixedRate = 10000)
-    @Transactional(rollbackFor = Exception.class)
     public void syncThumbToDatabase() {
         try {
-            // 计算上一个时间片
-            String previousTimeSlice = calculatePreviousTimeSlice();
-            
-            log.info("开始同步点赞数据，时间片：{}", previousTimeSlice);
-            
-            // 同步指定时间片的数据
-            syncByTimeSlice(previousTimeSlice);
-            
-            log.info("点赞数据同步完成，时间片：{}", previousTimeSlice);
+            List<Long> sliceIds = listPendingSlices(0, calculatePreviousSliceId(), MAX_SLICES_PER_RUN);
+            if (sliceIds.isEmpty()) {
+                log.info("没有待同步的时间片");
+                return;
+            }
+
+            log.info("开始同步点赞数据，时间片：{}", sliceIds);
+            int synced = 0;
+            for (Long sliceId : sliceIds) {
+                if (!syncBySlice(sliceId)) {
+                    log.info("时间片 {} 正在被其他任务同步，停止本次同步", sliceId);
+                    break;
+                }
+                synced++;
+            }
+            log.info("点赞数据同步完成，时间片数量：{}", synced);
         } catch (Exception e) {
             log.error("点赞数据同步失败", e);
             throw e;
         }
     }
 
+    /**
+     * 按时间片顺序获取待同步的时间片
+     * <p>
+     * Redis 操作：ZRANGEBYSCORE thumb:pending:slices {minSliceId} {maxSliceId} LIMIT 0 {limit}，O(log n + m)
+     *
+     * @param minSliceId 最小时间片ID（含）
+     * @param maxSliceId 最大时间片ID（含）
+     * @param limit      最多返回数量
+     * @return 时间片ID列表，升序
+     */
+    public List<Long> listPendingSlices(long minSliceId, long maxSliceId, int limit) {
+        Set<Object> members = redisTemplate.opsForZSet()
+                .rangeByScore(ThumbConstant.PENDING_THUMB_SLICES_KEY, minSliceId, maxSliceId, 0, limit);
+        if (CollUtil.isEmpty(members)) {
+            return List.of();
+        }
+        return members.stream()
+                .map(member -> Long.valueOf(member.toString()))
+                .toList();
+    }
+
+    /**
+     * 统计待同步的时间片数量
+     * <p>
+     * Redis 操作：ZCOUNT thumb:pending:slices {minSliceId} {maxSliceId}，O(log n)
+     *
+     * @param minSliceId 最小时间片ID（含）
+     * @param maxSliceId 最大时间片ID（含）
+     * @return 时间片数量
+     */
+    public long countPendingSlices(long minSliceId, long maxSliceId) {
+        Long count = redisTemplate.opsForZSet()
+                .count(ThumbConstant.PENDING_THUMB_SLICES_KEY, minSliceId, maxSliceId);
+        return count == null ? 0 : count;
+    }
+
     /**
      * 同步指定时间片的点赞数据
+     * <p>
+     * Redis 操作：HSCAN thumb:temp:{sliceId} 0 COUNT {chunkSize}，按固定大小分块流式读取，内存占用与时间片大小无关
+     * <p>
+     * 每块一个事务，提交后 HDEL 已处理的 Field；中途失败时时间片仍在待同步索引中，
+     * 下次只处理剩余的 Field。已提交但未来得及删除的块会被重复处理，写入前按数据库现状过滤，保证幂等
+     * <p>
+     * 同一时间片同时只由一个执行者同步：先获取时间片同步锁，未抢到时直接返回，
+     * 调用方需停止处理更新的时间片，等持有者完成后再继续；同步失败时抛出异常，时间片仍在待同步索引中
      *
-     * @param timeSlice 时间片（格式：HH:mm:ss）
+     * @param sliceId 时间片ID（epoch 秒，按10秒取整）
+     * @return 是否已同步该时间片，未抢到同步锁时返回 false
      */
-    public void syncByTimeSlice(String timeSlice) {
-        // 根据key 获取所有的 Field -> Value 映射关系
-        String tempThumbKey = RedisKeyUtil.getTempThumbKey(timeSlice);
-        Map<Object, Object> tempThumbMap = redisTemplate.opsForHash().entries(tempThumbKey);
-        if (CollUtil.isEmpty(tempThumbMap)) {
-            log.info("时间片 {} 无数据需要同步", timeSlice);
-            return;
+    public boolean syncBySlice(long sliceId) {
+        String lockKey = RedisKeyUtil.getSyncSliceLockKey(sliceId);
+        long token = IdUtil.getSnowflakeNextId();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(lockKey, token,
+                thumbProperties.getSyncLockTimeoutMs(), TimeUnit.MILLISECONDS);
+        if (!Boolean.TRUE.equals(locked)) {
+            return false;
+        }
+        try {
+            doSyncBySlice(sliceId, lockKey, token);
+            return true;
+        } finally {
+            redisTemplate.execute(RedisLuaScript.SYNC_LOCK_RELEASE_SCRIPT, List.of(lockKey), token);
         }
-        log.info("时间片 {} 有 {} 条记录需要同步", timeSlice, tempThumbMap.size());
+    }
 
-        // 用于批量插入的点赞记录
-        List<Thumb> thumbsToInsert = new ArrayList<>();
-        // 用于批量删除的查询条件
-        LambdaQueryWrapper<Thumb> deleteWrapper = new LambdaQueryWrapper<>();
-        boolean hasDeleteCondition = false;
-        // 用于批量更新博客点赞数
-        Map<Long, Long> blogThumbCountMap = new HashMap<>();
+    /**
+     * 持有时间片同步锁后同步指定时间片
+     *
+     * @param sliceId 时间片ID
+     * @param lockKey 时间片同步锁 Key
+     * @param token   持有者令牌
+     */
+    private void doSyncBySlice(long sliceId, String lockKey, long token) {
+        String tempThumbKey = RedisKeyUtil.getTempThumbKey(sliceId);
+        int chunkSize = thumbProperties.getSyncChunkSize();
+        int total = 0;
+        Map<Object, Object> chunk = new LinkedHashMap<>(chunkSize * 2);
+        ScanOptions scanOptions = ScanOptions.scanOptions().count(chunkSize).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash().scan(tempThumbKey, scanOptions)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                chunk.put(entry.getKey(), entry.getValue());
+                if (chunk.size() >= chunkSize) {
+                    total += syncChunk(sliceId, tempThumbKey, chunk, lockKey, token);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            total += syncChunk(sliceId, tempThumbKey, chunk, lockKey, token);
+        }
 
-        // 解析临时记录
-        for (Map.Entry<Object, Object> entry : tempThumbMap.entrySet()) {
-            Object key = entry.getKey();
-            String userIdBlogId = key.toString();
-            int operationType = Integer.parseInt(entry.getValue().toString());
+        if (total == 0) {
+            log.info("时间片 {} 无数据需要同步", sliceId);
+        } else {
+            log.info("时间片 {} 同步完成，共 {} 条记录", sliceId, total);
+        }
+        // 临时记录已全部同步时移出待同步索引
+        removeSlice(sliceId, tempThumbKey);
+    }
+
+    /**
+     * 同步一块临时记录
+     * <p>
+     * 一个事务内完成插入点赞记录、删除取消点赞记录、更新博客点赞数，提交后删除这些 Field，
+     * 并原子地扣减待同步点赞数变化量，使其始终等于各时间片中剩余 Field 的合计；
+     * 写入数据库到扣减完成之间登记为进行中的结算，期间不初始化点赞数计数器的基数
+     * <p>
+     * 写入前续期时间片同步锁，锁已失效（租期内未完成上一块）时中止，剩余 Field 留给下一次同步
+     *
+     * @param sliceId      时间片ID
+     * @param tempThumbKey 临时记录 Key
+     * @param chunk        userId:blogId -> operationType
+     * @param lockKey      时间片同步锁 Key
+     * @param token        持有者令牌
+     * @return 处理的记录数
+     */
+    private int syncChunk(long sliceId, String tempThumbKey, Map<Object, Object> chunk, String lockKey, long token) {
+        Long renewed = redisTemplate.execute(RedisLuaScript.SYNC_LOCK_RENEW_SCRIPT,
+                List.of(lockKey), token, thumbProperties.getSyncLockTimeoutMs());
+        if (renewed == null || renewed == 0) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "时间片 " + sliceId + " 同步锁已失效");
+        }
 
-            // 解析 userId 和 blogId
+        // userId:blogId -> 操作类型
+        Map<String, ThumbOperationType> operations = new HashMap<>(chunk.size() * 2);
+        // 已处理的 Field：依次为用户ID、博客ID、读取时的操作类型
+        List<Object> processedFields = new ArrayList<>(chunk.size() * 3);
+        List<Object> invalidFields = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : chunk.entrySet()) {
+            String userIdBlogId = entry.getKey().toString();
+            int operationType = Integer.parseInt(entry.getValue().toString());
             String[] parts = userIdBlogId.split(StrPool.COLON);
             if (parts.length != 2) {
                 log.warn("无效的临时记录格式：{}", userIdBlogId);
+                invalidFields.add(userIdBlogId);
                 continue;
             }
-            Long userId = Long.valueOf(parts[0]);
-            Long blogId = Long.valueOf(parts[1]);
-
-            // 根据操作类型执行相应逻辑
+            processedFields.add(Long.valueOf(parts[0]));
+            processedFields.add(Long.valueOf(parts[1]));
+            processedFields.add(operationType);
             ThumbOperationType type = ThumbOperationType.fromValue(operationType);
-            switch (type) {
-                case THUMB:
-                    // 点赞：准备插入记录
-                    Thumb thumb = new Thumb();
-                    thumb.setUserId(userId);
-                    thumb.setBlogId(blogId);
-                    thumbsToInsert.add(thumb);
-                    break;
+            if (type == ThumbOperationType.NONE) {
+                // 无变化：跳过
+                log.debug("操作无变化：{}", userIdBlogId);
+                continue;
+            }
+            operations.put(userIdBlogId, type);
+        }
 
-                case CANCEL:
-                    // 取消点赞：准备删除记录
-                    hasDeleteCondition = true;
-                    deleteWrapper.or()
-                            .eq(Thumb::getUserId, userId)
-                            .eq(Thumb::getBlogId, blogId);
-                    break;
+        Long settleToken = operations.isEmpty() ? null : thumbCountManager.beginSettle();
+        try {
+            if (!operations.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> applyOperations(operations));
+            }
 
-                case NONE:
-                    // 无变化：跳过
-                    log.debug("用户 {} 对博客 {} 的操作无变化", userId, blogId);
-                    continue;
+            // 提交后删除已处理的 Field，记录同步进度，同时扣减尚未同步的点赞数变化量
+            redisTemplate.execute(RedisLuaScript.TEMP_THUMB_REMOVE_SCRIPT,
+                    List.of(tempThumbKey, ThumbConstant.PENDING_THUMB_COUNT_KEY), processedFields.toArray());
+        } finally {
+            if (settleToken != null) {
+                thumbCountManager.endSettle(settleToken);
+            }
+        }
+        if (!invalidFields.isEmpty()) {
+            redisTemplate.opsForHash().delete(tempThumbKey, invalidFields.toArray());
+        }
+        log.info("时间片 {} 已同步 {} 条记录", sliceId, chunk.size());
+        return chunk.size();
+    }
 
-                default:
-                    log.warn("未知的操作类型：{}, userId={}, blogId={}", operationType, userId, blogId);
-                    continue;
+    /**
+     * 将一块点赞操作写入数据库
+     * <p>
+     * SQL: SELECT id, userId, blogId FROM thumb WHERE (userId = ? AND blogId = ?) OR ...
+     * <p>
+     * 已存在的点赞和不存在的取消点赞直接跳过，点赞数按实际生效的操作累加，重复执行不会重复计数
+     *
+     * @param operations userId:blogId -> 操作类型
+     */
+    private void applyOperations(Map<String, ThumbOperationType> operations) {
+        // 查询本块涉及的已有点赞记录
+        LambdaQueryWrapper<Thumb> queryWrapper = new LambdaQueryWrapper<Thumb>()
+                .select(Thumb::getId, Thumb::getUserId, Thumb::getBlogId);
+        operations.keySet().forEach(userIdBlogId -> {
+            String[] parts = userIdBlogId.split(StrPool.COLON);
+            queryWrapper.or()
+                    .eq(Thumb::getUserId, Long.valueOf(parts[0]))
+                    .eq(Thumb::getBlogId, Long.valueOf(parts[1]));
+        });
+        Map<String, Long> existingThumbIds = new HashMap<>();
+        for (Thumb thumb : thumbService.list(queryWrapper)) {
+            existingThumbIds.put(thumb.getUserId() + StrPool.COLON + thumb.getBlogId(), thumb.getId());
+        }
+
+        // 用于批量插入的点赞记录
+        List<Thumb> thumbsToInsert = new ArrayList<>();
+        // 用于批量删除的点赞记录ID
+        List<Long> thumbIdsToDelete = new ArrayList<>();
+        // 用于批量更新博客点赞数
+        Map<Long, Long> blogThumbCountMap = new HashMap<>();
+        operations.forEach((userIdBlogId, type) -> {
+            String[] parts = userIdBlogId.split(StrPool.COLON);
+            Long userId = Long.valueOf(parts[0]);
+            Long blogId = Long.valueOf(parts[1]);
+            Long thumbId = existingThumbIds.get(userIdBlogId);
+            if (type == ThumbOperationType.THUMB && thumbId == null) {
+                // 点赞：准备插入记录
+                Thumb thumb = new Thumb();
+                thumb.setUserId(userId);
+                thumb.setBlogId(blogId);
+                thumbsToInsert.add(thumb);
+            } else if (type == ThumbOperationType.CANCEL && thumbId != null) {
+                // 取消点赞：准备删除记录
+                thumbIdsToDelete.add(thumbId);
+            } else {
+                // 已经生效过（重复处理的块）：跳过
+                log.debug("用户 {} 对博客 {} 的操作已生效", userId, blogId);
+                return;
             }
             // 累加博客点赞数变化量
-            // blogThumbCountMap.put(blogId, blogThumbCountMap.getOrDefault(blogId, 0L) + thumbType);
             blogThumbCountMap.merge(blogId, (long) type.getValue(), Long::sum);
-        }
+        });
+        blogThumbCountMap.values().removeIf(delta -> delta == 0);
 
         // 批量插入点赞记录
         if (!thumbsToInsert.isEmpty()) {
@@ -140,8 +331,8 @@ public class ThumbSyncJob {
         }
 
         // 批量删除取消点赞记录
-        if (hasDeleteCondition) {
-            int deleteCount = thumbService.getBaseMapper().delete(deleteWrapper);
+        if (!thumbIdsToDelete.isEmpty()) {
+            int deleteCount = thumbService.getBaseMapper().deleteBatchIds(thumbIdsToDelete);
             log.info("批量删除 {} 条点赞记录", deleteCount);
         }
 
@@ -150,38 +341,41 @@ public class ThumbSyncJob {
             blogMapper.batchUpdateThumbCount(blogThumbCountMap);
             log.info("批量更新 {} 个博客的点赞数", blogThumbCountMap.size());
         }
+    }
 
-        // 异步删除已处理的临时记录
-        Thread.startVirtualThread(() -> {
-            try {
-                redisTemplate.delete(tempThumbKey);
-                log.debug("已删除临时记录，时间片：{}", timeSlice);
-            } catch (Exception e) {
-                log.error("删除临时记录失败，时间片：{}", timeSlice, e);
+    /**
+     * 移除已同步的时间片
+     * <p>
+     * Redis 操作：HLEN thumb:temp:{sliceId} 为 0 时 ZREM thumb:pending:slices {sliceId}
+     * <p>
+     * 已处理的 Field 在每块提交后逐个删除，这里不整体删除临时记录，HSCAN 之后写入的 Field 留给下一次同步
+     */
+    private void removeSlice(long sliceId, String tempThumbKey) {
+        try {
+            Long removed = redisTemplate.execute(RedisLuaScript.TEMP_THUMB_SLICE_REMOVE_SCRIPT,
+                    List.of(tempThumbKey, ThumbConstant.PENDING_THUMB_SLICES_KEY),
+                    sliceId);
+            if (removed != null && removed == 1) {
+                log.debug("已移除时间片：{}", sliceId);
+            } else {
+                log.info("时间片 {} 仍有未同步的临时记录，保留到下一次同步", sliceId);
             }
-        });
+        } catch (Exception e) {
+            // 删除失败时时间片仍在待同步索引中，会被重复同步
+            log.error("删除临时记录失败，时间片：{}", sliceId, e);
+        }
     }
 
     /**
-     * 计算上一个时间片
+     * 计算上一个时间片ID
+     * <p>
+     * 按 Redis 服务器时间判断时间片是否已结束，与点赞服务写入时间片使用同一时钟
      * <p>
-     * 示例：14:30:15 -> 14:30:00，14:30:05 -> 14:29:50
+     * 示例：epoch 秒 1761805823 -> 1761805810
      *
-     * @return 上一个时间片（格式：HH:mm:ss）
+     * @return 上一个时间片ID（epoch 秒，按10秒取整）
      */
-    private String calculatePreviousTimeSlice() {
-        Date now = new Date();
-        int second = DateUtil.second(now);
-        
-        // 计算上一个时间片的秒数
-        int sliceSecond = (second / 10 - 1) * 10;
-        
-        // 如果秒数为负数，说明需要回到上一分钟
-        if (sliceSecond < 0) {
-            sliceSecond = 50;
-            now = DateUtil.offsetMinute(now, -1);
-        }
-        
-        return DateUtil.format(now, "HH:mm:") + String.format("%02d", sliceSecond);
+    private long calculatePreviousSliceId() {
+        return thumbSliceClock.currentSliceId() - ThumbConstant.THUMB_SLICE_SECONDS;
     }
 }
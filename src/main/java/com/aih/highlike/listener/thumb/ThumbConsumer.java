@@ -3,6 +3,7 @@ package com.aih.highlike.listener.thumb;
 import cn.hutool.core.lang.Pair;
 import com.aih.highlike.exception.BusinessException;
 import com.aih.highlike.listener.thumb.msg.ThumbEvent;
+import com.aih.highlike.manager.cache.ThumbCountManager;
 import com.aih.highlike.mapper.BlogMapper;
 import com.aih.highlike.model.entity.Thumb;
 import com.aih.highlike.service.ThumbService;
@@ -16,9 +17,12 @@ import org.apache.pulsar.common.schema.SchemaType;
 import org.springframework.pulsar.annotation.PulsarListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -34,6 +38,8 @@ public class ThumbConsumer {
     private  BlogMapper blogMapper;
     @Resource
     private ThumbService thumbService;
+    @Resource
+    private ThumbCountManager thumbCountManager;
 
 
     /**
@@ -126,6 +132,8 @@ public class ThumbConsumer {
             }  
         });  
   
+        // 写入数据库之前登记结算，提交后扣减待消费变化量  
+        settlePendingAfterCommit(events);
         // 批量更新数据库  
         if (needRemove.get()) {  
             thumbService.remove(wrapper);  
@@ -133,6 +141,41 @@ public class ThumbConsumer {
         batchUpdateBlogs(countMap);  
         batchInsertThumbs(thumbs);  
     }  
+
+    /**
+     * 事务提交后按事件的时间片扣减 MQ 待消费点赞数变化量
+     * <p>
+     * 批次内成对抵消的事件同样已处理完毕，一并扣减；没有时间片的事件（如对账补偿消息）不计入待消费变化量。
+     * 需在写入数据库之前调用：登记一次进行中的结算，事务结束（提交并扣减或回滚）后注销，
+     * 期间初始化点赞数计数器不写入基数
+     */
+    private void settlePendingAfterCommit(List<ThumbEvent> events) {
+        // 时间片ID -> 博客ID -> 变化量
+        Map<Long, Map<Long, Long>> sliceDeltas = new HashMap<>();
+        for (ThumbEvent event : events) {
+            if (event.getSliceId() == null) {
+                continue;
+            }
+            long delta = event.getType() == ThumbEvent.EventType.INCR ? 1L : -1L;
+            sliceDeltas.computeIfAbsent(event.getSliceId(), k -> new HashMap<>())
+                    .merge(event.getBlogId(), delta, Long::sum);
+        }
+        if (sliceDeltas.isEmpty()) {
+            return;
+        }
+        long settleToken = thumbCountManager.beginSettle();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sliceDeltas.forEach(thumbCountManager::settleMqPending);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                thumbCountManager.endSettle(settleToken);
+            }
+        });
+    }
   
     public void batchUpdateBlogs(Map<Long, Long> countMap) {  
         if (!countMap.isEmpty()) {  
@@ -42,6 +42,11 @@ public class ThumbEvent implements Serializable {
      */
     private LocalDateTime eventTime;
 
+    /**
+     * 发送时所在的时间片ID，消费后按此扣减待消费点赞数变化量；为 null 时不扣减
+     */
+    private Long sliceId;
+
     /**
      * 事件类型枚举  
      */
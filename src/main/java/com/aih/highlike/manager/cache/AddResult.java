@@ -8,6 +8,11 @@ import lombok.Data;
 @Data
 public class AddResult {
 
+    /**
+     * 未进入 TopK 的共享结果，冷 Key 不再每次分配新对象
+     */
+    public static final AddResult COLD = new AddResult(null, false, null);
+
     /**
      * 被挤出 TopK 的 key
      */
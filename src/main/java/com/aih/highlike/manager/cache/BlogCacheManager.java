@@ -0,0 +1,176 @@
+package com.aih.highlike.manager.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.RandomUtil;
+import com.aih.highlike.constant.CacheConstant;
+import com.aih.highlike.mapper.BlogMapper;
+import com.aih.highlike.model.entity.Blog;
+import com.aih.highlike.util.RedisKeyUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 博客多级缓存
+ * <p>
+ * 查询流程：本地缓存（Caffeine）-> Redis -> MySQL
+ * 1. 本地缓存与 Redis 两级由 {@link CacheManager} 负责，热点博客缓存到本地
+ * 2. 两级都未命中时查询 MySQL，并写回 Redis（带随机偏移的过期时间）
+ * 3. 博客变更后删除 Redis 并广播淘汰各节点的本地缓存；在事务中调用时延迟到提交之后执行
+ */
+@Slf4j
+@Component
+public class BlogCacheManager {
+
+    @Resource
+    private CacheManager cacheManager;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private BlogMapper blogMapper;
+
+    /**
+     * 获取博客
+     *
+     * @param blogId 博客ID
+     * @return 博客，不存在时返回 null
+     */
+    public Blog get(Long blogId) {
+        String field = blogId.toString();
+        Object cached = cacheManager.get(RedisKeyUtil.getBlogKey(blogId), field);
+        if (cached instanceof Blog blog) {
+            return blog;
+        }
+        Blog blog = blogMapper.selectById(blogId);
+        if (blog != null) {
+            writeBack(List.of(blog));
+        }
+        return blog;
+    }
+
+    /**
+     * 批量获取博客
+     * <p>
+     * 缓存未命中的博客合并为一次 MySQL 查询，再通过管道批量写回 Redis
+     *
+     * @param blogIds 博客ID列表
+     * @return 博客列表，与 blogIds 顺序一致，不存在的博客被跳过
+     */
+    public List<Blog> multiGet(List<Long> blogIds) {
+        if (CollUtil.isEmpty(blogIds)) {
+            return List.of();
+        }
+        List<String> hashKeys = new ArrayList<>(blogIds.size());
+        List<String> fields = new ArrayList<>(blogIds.size());
+        for (Long blogId : blogIds) {
+            hashKeys.add(RedisKeyUtil.getBlogKey(blogId));
+            fields.add(blogId.toString());
+        }
+        List<Object> cached = cacheManager.multiGet(hashKeys, fields);
+
+        List<Long> missIds = new ArrayList<>();
+        for (int i = 0; i < blogIds.size(); i++) {
+            if (!(cached.get(i) instanceof Blog)) {
+                missIds.add(blogIds.get(i));
+            }
+        }
+        Map<Long, Blog> loaded = Map.of();
+        if (!missIds.isEmpty()) {
+            List<Blog> blogs = blogMapper.selectBatchIds(missIds);
+            writeBack(blogs);
+            loaded = blogs.stream().collect(Collectors.toMap(Blog::getId, Function.identity()));
+        }
+
+        List<Blog> result = new ArrayList<>(blogIds.size());
+        for (int i = 0; i < blogIds.size(); i++) {
+            Blog blog = cached.get(i) instanceof Blog cachedBlog ? cachedBlog : loaded.get(blogIds.get(i));
+            if (blog != null) {
+                result.add(blog);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 淘汰博客缓存
+     * <p>
+     * 在事务中调用时，提交之后再淘汰，避免并发读请求在提交前把旧数据重新写回缓存
+     *
+     * @param blogIds 博客ID
+     */
+    public void evict(Collection<Long> blogIds) {
+        if (CollUtil.isEmpty(blogIds)) {
+            return;
+        }
+        List<Long> ids = List.copyOf(blogIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(ids);
+                }
+            });
+        } else {
+            doEvict(ids);
+        }
+    }
+
+    private void doEvict(List<Long> blogIds) {
+        try {
+            // Redis 操作：DEL blog:{blogId1} blog:{blogId2} ...
+            redisTemplate.delete(blogIds.stream().map(RedisKeyUtil::getBlogKey).toList());
+            for (Long blogId : blogIds) {
+                cacheManager.invalidate(RedisKeyUtil.getBlogKey(blogId), blogId.toString());
+            }
+        } catch (Exception e) {
+            // 淘汰失败不影响业务，旧数据最多保留到过期
+            log.error("博客缓存淘汰失败：{}", blogIds, e);
+        }
+    }
+
+    /**
+     * 将博客写回 Redis
+     * <p>
+     * Redis 操作：HSET blog:{blogId} {blogId} {blog} + EXPIRE，管道一次往返
+     */
+    @SuppressWarnings("unchecked")
+    private void writeBack(List<Blog> blogs) {
+        if (blogs.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                    for (Blog blog : blogs) {
+                        String blogKey = RedisKeyUtil.getBlogKey(blog.getId());
+                        long expireSeconds = CacheConstant.BLOG_EXPIRE_SECONDS
+                                + RandomUtil.randomLong(CacheConstant.BLOG_EXPIRE_JITTER_SECONDS);
+                        redisOperations.opsForHash().put(blogKey, blog.getId().toString(), blog);
+                        redisOperations.expire(blogKey, expireSeconds, TimeUnit.SECONDS);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // 写回失败不影响本次查询，下次查询再回源
+            log.error("博客缓存写回失败，数量：{}", blogs.size(), e);
+        }
+    }
+}
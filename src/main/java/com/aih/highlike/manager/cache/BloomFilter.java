@@ -0,0 +1,84 @@
+package com.aih.highlike.manager.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器
+ * <p>
+ * 位数组存放在 AtomicLongArray 中，置位通过 CAS 完成，可并发 put 与 mightContain。
+ * 各哈希函数的位下标由 {@link KeyHash} 的 64 位哈希双重哈希推导，一次查询只计算一次哈希。
+ * <p>
+ * 只支持添加、不支持删除：mightContain 返回 false 时元素一定不存在，返回 true 时可能存在。
+ */
+class BloomFilter {
+
+    /**
+     * 位数组
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * 位数
+     */
+    private final int bitCount;
+
+    /**
+     * 哈希函数个数
+     */
+    private final int hashCount;
+
+    /**
+     * 构造函数
+     *
+     * @param expectedInsertions 预计元素个数
+     * @param fpp                期望误判率
+     */
+    BloomFilter(int expectedInsertions, double fpp) {
+        int n = Math.max(1, expectedInsertions);
+        // m = -n * ln(p) / (ln2)^2，k = m / n * ln2
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE / Long.SIZE, Math.max(1, (m + Long.SIZE - 1) / Long.SIZE));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param key 元素
+     */
+    void put(String key) {
+        long hash = KeyHash.hash64(key);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = KeyHash.index(hash, i, bitCount);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current = bits.get(word);
+            while ((current & mask) == 0) {
+                long witness = bits.compareAndExchange(word, current, current | mask);
+                if (witness == current) {
+                    break;
+                }
+                current = witness;
+            }
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param key 元素
+     * @return false 表示一定不存在，true 表示可能存在
+     */
+    boolean mightContain(String key) {
+        long hash = KeyHash.hash64(key);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = KeyHash.index(hash, i, bitCount);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,25 +1,51 @@
 package com.aih.highlike.manager.cache;
 
 import cn.hutool.core.util.ObjectUtil;
-import com.github.benmanes.caffeine.cache.Cache;
+import com.aih.highlike.config.HotKeyProperties;
+import com.aih.highlike.constant.CacheConstant;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 缓存管理器
  * <p>
  * 功能：
- * 1. 管理本地缓存（Caffeine）
- * 2. 管理热点检测器（HeavyKeeper）
+ * 1. 管理本地缓存（Caffeine，按内存预算淘汰，可按命中率自动调整预算）
+ * 2. 管理热点检测器（算法由 hot-key 配置选择）
  * 3. 实现多级缓存查询
  * 4. 定期衰减热点数据
+ * 5. 汇总集群热点，本地不够热但集群热的 Key 同样缓存到本地
+ * 6. 消费被挤出 TopK 的 Key，及时从本地缓存淘汰
+ * 7. 停机时保存热点快照，启动后恢复并预热本地缓存
+ * 8. 写入时广播失效消息，其他节点淘汰本地副本
+ * 9. 热点 Key 过期前异步批量刷新，冷 Key 自然过期
  */
 @Slf4j
 @Component
@@ -28,6 +54,18 @@ public class CacheManager {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
     
+    @Resource
+    private ClusterHotKeyAggregator clusterHotKeyAggregator;
+
+    @Resource
+    private HotKeyProperties hotKeyProperties;
+
+    @Resource
+    private LocalCacheInvalidationBus localCacheInvalidationBus;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+    
     /**
      * 热点检测器
      */
@@ -36,52 +74,188 @@ public class CacheManager {
     /**
      * 本地缓存
      */
-    private Cache<String, Object> localCache;
+    private LoadingCache<String, Object> localCache;
+    
+    /**
+     * 本地缓存的批量刷新加载器
+     */
+    private HotKeyRefreshLoader refreshLoader;
+    
+    /**
+     * 本地缓存内存预算自动调整器，未开启时为 null
+     */
+    private LocalCacheSizeTuner localCacheSizeTuner;
+    
+    /**
+     * 本地 TopK 中的 Key 集合，每秒刷新，供本地缓存刷新时判断是否续期
+     */
+    private volatile Set<String> localHotKeys = Set.of();
+    
+    /**
+     * 正在从 Redis 加载的复合 Key -> 加载结果
+     * <p>
+     * 同一 Key 的并发未命中只发起一次 Redis 查询，其余请求等待同一个结果
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    
+    /**
+     * 本地缓存的 Field -> 复合 Key 索引，淘汰被挤出 TopK 的 Field 时使用
+     */
+    private final LocalCacheFieldIndex fieldIndex = new LocalCacheFieldIndex();
     
     /**
      * 初始化热点检测器
+     * <p>
+     * 算法与参数由 hot-key 配置决定，stripes 大于 1 时包装为分片 TopK
      */
     @Bean
     public TopK getHotKeyDetector() {
-        hotKeyDetector = new HeavyKeeper(
-                100,      // 监控 Top 100 Key
-                100000,   // 宽度
-                5,        // 深度
-                0.92,     // 衰减系数
-                10        // 最小出现 10 次才记录
-        );
+        int stripes = hotKeyProperties.getStripes();
+        if (stripes > 1) {
+            // 每个分片只承担 1/stripes 的流量，宽度与阈值同比缩小
+            hotKeyDetector = new StripedTopK(stripes, hotKeyProperties.getK(),
+                    hotKeyProperties.getMergeIntervalMs(),
+                    () -> createDetector(hotKeyProperties.getWidth() / stripes,
+                            Math.max(1, hotKeyProperties.getMinCount() / stripes)));
+        } else {
+            hotKeyDetector = createDetector(hotKeyProperties.getWidth(), hotKeyProperties.getMinCount());
+        }
+        log.info("热点检测算法：{}，分片数：{}", hotKeyProperties.getAlgorithm().getDescription(), Math.max(1, stripes));
         return hotKeyDetector;
     }
+
+    /**
+     * 按配置的算法创建热点检测器
+     */
+    private TopK createDetector(int width, int minCount) {
+        int k = hotKeyProperties.getK();
+        int depth = hotKeyProperties.getDepth();
+        double decay = hotKeyProperties.getDecay();
+        return switch (hotKeyProperties.getAlgorithm()) {
+            case HEAVY_KEEPER -> new HeavyKeeper(k, width, depth, decay, minCount);
+            case LOCK_FREE_HEAVY_KEEPER -> new LockFreeHeavyKeeper(k, width, depth, decay, minCount);
+            case SLIDING_WINDOW -> new SlidingWindowTopK(k, width, depth, decay, minCount,
+                    hotKeyProperties.getSliceCount(), hotKeyProperties.getSliceMillis());
+            case SPACE_SAVING -> new SpaceSaving(k, hotKeyProperties.getCapacity(), minCount);
+            case COUNT_MIN -> new CountMinTopK(k, width, depth, minCount);
+        };
+    }
     
     /**
      * 初始化本地缓存
+     * <p>
+     * 写入一段时间后，热点 Key 在下次访问时异步批量刷新，读请求继续返回旧值；
+     * 不再是热点的 Key 不刷新，随后被移除
      */
     @Bean
-    public Cache<String, Object> localCache() {
+    public LoadingCache<String, Object> localCache() {
+        refreshLoader = new HotKeyRefreshLoader(redisTemplate, this::isHotKey);
         localCache = Caffeine.newBuilder()
-                .maximumSize(1000)                          // 最多缓存 1000 个元素
-                .expireAfterWrite(5, TimeUnit.MINUTES)      // 写入后 5 分钟过期
-                .build();
+                // 按估算的字节数称重，总量不超过内存预算
+                .maximumWeight(hotKeyProperties.getLocalCacheMaxSize().toBytes())
+                .weigher(new LocalCacheWeigher())
+                // 写入后过期，有失效广播兜底一致性，可以配置得较长
+                .expireAfterWrite(hotKeyProperties.getLocalCacheExpireSeconds(), TimeUnit.SECONDS)
+                // 过期前刷新热点 Key
+                .refreshAfterWrite(hotKeyProperties.getLocalCacheRefreshSeconds(), TimeUnit.SECONDS)
+                // 条目移除后注销 Field 索引，刷新替换值时复合 Key 不变，无需处理
+                .removalListener((String compositeKey, Object value, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        fieldIndex.remove(compositeKey, key -> localCache.asMap().containsKey(key));
+                    }
+                })
+                .recordStats()
+                .build(refreshLoader);
+        
+        // 命中率、淘汰数等统计导出到 Micrometer
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "localCache");
+        Gauge.builder("local.cache.max.bytes", this, CacheManager::localCacheBudgetBytes)
+                .description("本地缓存内存预算")
+                .register(meterRegistry);
+        Gauge.builder("local.cache.weighted.bytes", localCache,
+                        cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("本地缓存已用的估算内存")
+                .register(meterRegistry);
+        
+        if (hotKeyProperties.isLocalCacheAutoTune()) {
+            long maxBytes = (long) (Runtime.getRuntime().maxMemory() * hotKeyProperties.getLocalCacheMaxHeapRatio());
+            localCacheSizeTuner = new LocalCacheSizeTuner(localCache, hotKeyProperties.getLocalCacheMaxSize().toBytes(),
+                    hotKeyProperties.getLocalCacheMinSize().toBytes(), maxBytes);
+        }
         return localCache;
     }
     
+    /**
+     * 当前本地缓存内存预算（字节）
+     */
+    private long localCacheBudgetBytes() {
+        return localCacheSizeTuner != null
+                ? localCacheSizeTuner.budgetBytes()
+                : hotKeyProperties.getLocalCacheMaxSize().toBytes();
+    }
+    
+    /**
+     * 定时调整本地缓存内存预算
+     * <p>
+     * 每分钟执行一次，仅在开启 local-cache-auto-tune 时生效
+     */
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.MINUTES)
+    public void tuneLocalCacheSize() {
+        if (localCacheSizeTuner != null) {
+            localCacheSizeTuner.tune();
+        }
+    }
+    
+    /**
+     * 停止本地缓存刷新线程与热点检测器的后台线程
+     */
+    @PreDestroy
+    public void closeBackgroundThreads() {
+        if (refreshLoader != null) {
+            refreshLoader.close();
+        }
+        if (hotKeyDetector instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("热点检测器关闭失败", e);
+            }
+        }
+    }
+    
     /**
      * 构造复合 Key
      * <p>
      * 格式：hashKey:key
      */
-    private String buildCacheKey(String hashKey, String key) {
+    static String buildCacheKey(String hashKey, String key) {
         return hashKey + ":" + key;
     }
     
+    /**
+     * 从复合 Key 中取出 Field
+     * <p>
+     * hashKey 本身可能包含冒号，Field 为最后一个冒号之后的部分
+     */
+    static String extractKey(String compositeKey) {
+        return compositeKey.substring(compositeKey.lastIndexOf(':') + 1);
+    }
+    
+    /**
+     * 从复合 Key 中取出 Hash Key
+     */
+    static String extractHashKey(String compositeKey) {
+        return compositeKey.substring(0, compositeKey.lastIndexOf(':'));
+    }
+    
     /**
      * 多级缓存查询
      * <p>
      * 查询流程：
      * 1. 查询本地缓存
-     * 2. 本地缓存未命中，查询 Redis
+     * 2. 本地缓存未命中，查询 Redis（同一 Key 的并发未命中合并为一次查询）
      * 3. 记录访问频率
-     * 4. 如果是热点 Key，缓存到本地
+     * 4. 如果是本地热点或集群热点 Key，缓存到本地
      *
      * @param hashKey Redis Hash 的 Key
      * @param key     Redis Hash 的 Field
@@ -98,8 +272,8 @@ public class CacheManager {
             return value;
         }
         
-        // 2. 本地缓存未命中，查询 Redis
-        Object redisValue = redisTemplate.opsForHash().get(hashKey, key);
+        // 2. 本地缓存未命中，查询 Redis（并发请求合并为一次）
+        Object redisValue = loadFromRedis(hashKey, key, compositeKey);
         if (redisValue == null) {
             return null;
         }
@@ -107,15 +281,188 @@ public class CacheManager {
         // 3. 记录访问频率
         AddResult addResult = hotKeyDetector.add(key, 1);
         
-        // 4. 如果是热点 Key，缓存到本地
-        if (addResult.isHotKey()) {
-            localCache.put(compositeKey, redisValue);
+        // 4. 如果是本地热点或集群热点 Key，缓存到本地
+        if (addResult.isHotKey() || clusterHotKeyAggregator.isGlobalHot(key)) {
+            putLocal(compositeKey, redisValue);
         }
         return redisValue;
     }
     
+    /**
+     * 写入本地缓存并登记 Field 索引
+     *
+     * @param compositeKey 复合 Key
+     * @param value        值
+     */
+    private void putLocal(String compositeKey, Object value) {
+        localCache.put(compositeKey, value);
+        fieldIndex.add(compositeKey, key -> localCache.asMap().containsKey(key));
+    }
+    
+    /**
+     * 从 Redis 加载单个 Field，同一复合 Key 的并发加载合并为一次
+     * <p>
+     * 第一个未命中的请求负责查询 Redis，加载期间到达的请求等待它的结果（包括异常）；
+     * 加载完成即移出 inFlightLoads，之后的未命中会重新查询，不会读到过期结果
+     *
+     * @param hashKey      Redis Hash 的 Key
+     * @param key          Redis Hash 的 Field
+     * @param compositeKey 复合 Key
+     * @return 值
+     */
+    private Object loadFromRedis(String hashKey, String key, String compositeKey) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(compositeKey, future);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        
+        try {
+            // Redis 操作：HGET {hashKey} {key}
+            Object value = redisTemplate.opsForHash().get(hashKey, key);
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Error 也要结束 future，否则等待中的请求会一直阻塞在 join()
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(compositeKey, future);
+        }
+    }
+    
+    /**
+     * 多级缓存批量查询
+     * <p>
+     * 查询流程：
+     * 1. 逐个查询本地缓存，命中的直接返回并记录访问次数
+     * 2. 未命中的 Field 合并为一次 HMGET 查询 Redis
+     * 3. 记录未命中 Field 的访问频率，本地热点或集群热点 Key 缓存到本地
+     *
+     * @param hashKey Redis Hash 的 Key
+     * @param keys    Redis Hash 的 Field 列表
+     * @return 值列表，与 keys 顺序一一对应，不存在的位置为 null
+     */
+    public List<Object> multiGet(String hashKey, List<String> keys) {
+        List<Object> values = new ArrayList<>(keys.size());
+        List<String> missKeys = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        
+        // 1. 查询本地缓存
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            Object value = localCache.getIfPresent(buildCacheKey(hashKey, key));
+            values.add(value);
+            if (ObjectUtil.isNotNull(value)) {
+                hotKeyDetector.add(key, 1);
+            } else {
+                missKeys.add(key);
+                missIndexes.add(i);
+            }
+        }
+        if (missKeys.isEmpty()) {
+            return values;
+        }
+        
+        // 2. 只查询未命中的 Field
+        // Redis 操作：HMGET {hashKey} {field1} {field2} ...
+        HashOperations<String, String, Object> hashOperations = redisTemplate.opsForHash();
+        List<Object> redisValues = hashOperations.multiGet(hashKey, missKeys);
+        
+        // 3. 记录访问频率，热点 Key 缓存到本地
+        for (int j = 0; j < missKeys.size(); j++) {
+            Object redisValue = redisValues.get(j);
+            if (redisValue == null) {
+                continue;
+            }
+            String key = missKeys.get(j);
+            values.set(missIndexes.get(j), redisValue);
+            AddResult addResult = hotKeyDetector.add(key, 1);
+            if (addResult.isHotKey() || clusterHotKeyAggregator.isGlobalHot(key)) {
+                putLocal(buildCacheKey(hashKey, key), redisValue);
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * 多级缓存批量查询（多个 Hash Key）
+     * <p>
+     * 与 {@link #multiGet(String, List)} 相同，区别在于每个 Field 属于各自的 Hash Key，
+     * 未命中部分按 Hash Key 分组，通过管道一次往返完成全部 HMGET
+     *
+     * @param hashKeys Redis Hash 的 Key 列表
+     * @param keys     Redis Hash 的 Field 列表，与 hashKeys 一一对应
+     * @return 值列表，与 keys 顺序一一对应，不存在的位置为 null
+     */
+    public List<Object> multiGet(List<String> hashKeys, List<String> keys) {
+        List<Object> values = new ArrayList<>(keys.size());
+        Set<String> missCompositeKeys = new HashSet<>();
+        
+        // 1. 查询本地缓存
+        for (int i = 0; i < keys.size(); i++) {
+            String compositeKey = buildCacheKey(hashKeys.get(i), keys.get(i));
+            Object value = localCache.getIfPresent(compositeKey);
+            values.add(value);
+            if (ObjectUtil.isNotNull(value)) {
+                hotKeyDetector.add(keys.get(i), 1);
+            } else {
+                missCompositeKeys.add(compositeKey);
+            }
+        }
+        if (missCompositeKeys.isEmpty()) {
+            return values;
+        }
+        
+        // 2. 管道批量查询未命中的部分
+        Map<String, Object> redisValues = refreshLoader.loadAll(missCompositeKeys);
+        
+        // 3. 记录访问频率，热点 Key 缓存到本地
+        for (int i = 0; i < keys.size(); i++) {
+            if (values.get(i) != null) {
+                continue;
+            }
+            String compositeKey = buildCacheKey(hashKeys.get(i), keys.get(i));
+            Object redisValue = redisValues.get(compositeKey);
+            if (redisValue == null) {
+                continue;
+            }
+            values.set(i, redisValue);
+            String key = keys.get(i);
+            AddResult addResult = hotKeyDetector.add(key, 1);
+            if (addResult.isHotKey() || clusterHotKeyAggregator.isGlobalHot(key)) {
+                putLocal(compositeKey, redisValue);
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * 订阅其他节点的本地缓存失效广播
+     */
+    @PostConstruct
+    public void subscribeInvalidation() {
+        localCacheInvalidationBus.onInvalidate(compositeKey -> {
+            if (localCache != null) {
+                localCache.invalidate(compositeKey);
+            }
+        });
+    }
+    
     /**
      * 如果本地缓存存在，则更新
+     * <p>
+     * 同时广播失效消息，其他节点淘汰各自的本地副本
      *
      * @param hashKey Redis Hash 的 Key
      * @param key     Redis Hash 的 Field
@@ -125,8 +472,31 @@ public class CacheManager {
         String compositeKey = buildCacheKey(hashKey, key);
         Object existing = localCache.getIfPresent(compositeKey);
         if (existing != null) {
-            localCache.put(compositeKey, value);
+            putLocal(compositeKey, value);
         }
+        localCacheInvalidationBus.publish(compositeKey);
+    }
+    
+    /**
+     * 淘汰本地缓存，并广播到其他节点
+     *
+     * @param hashKey Redis Hash 的 Key
+     * @param key     Redis Hash 的 Field
+     */
+    public void invalidate(String hashKey, String key) {
+        String compositeKey = buildCacheKey(hashKey, key);
+        localCache.invalidate(compositeKey);
+        localCacheInvalidationBus.publish(compositeKey);
+    }
+    
+    /**
+     * 判断 Key 是否为热点（本地 TopK 或集群热点）
+     *
+     * @param key 热点检测器计数的 Key（复合 Key 中的 field）
+     * @return 是否为热点
+     */
+    public boolean isHotKey(String key) {
+        return localHotKeys.contains(key) || clusterHotKeyAggregator.isGlobalHot(key);
     }
     
     /**
@@ -139,4 +509,154 @@ public class CacheManager {
         hotKeyDetector.fading();
         log.debug("热点数据衰减完成，总访问次数：{}", hotKeyDetector.total());
     }
+    
+    /**
+     * 定时刷新本地热点 Key 集合
+     * <p>
+     * 每秒执行一次，本地缓存刷新时据此判断 Key 是否续期
+     */
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.SECONDS)
+    public void refreshLocalHotKeys() {
+        Set<String> hotKeys = new HashSet<>();
+        for (Item item : hotKeyDetector.list()) {
+            hotKeys.add(item.key());
+        }
+        localHotKeys = hotKeys;
+    }
+    
+    /**
+     * 定时同步集群热点
+     * <p>
+     * 每个窗口执行一次：上报本地 TopK，并刷新上一个完整窗口的全局热点
+     */
+    @Scheduled(fixedRate = CacheConstant.GLOBAL_HOT_KEY_WINDOW_SECONDS, timeUnit = TimeUnit.SECONDS)
+    public void syncClusterHotKeys() {
+        try {
+            clusterHotKeyAggregator.publish(hotKeyDetector.list());
+            clusterHotKeyAggregator.refresh();
+        } catch (Exception e) {
+            log.error("集群热点同步失败", e);
+        }
+    }
+    
+    /**
+     * 定时淘汰被挤出 TopK 的本地缓存
+     * <p>
+     * 每秒执行一次，消费热点检测器的被挤出队列：
+     * 1. 已重新进入 TopK 或仍是集群热点的 Key 保留
+     * 2. 其余 Key 对应的本地缓存立即淘汰，不必等到 5 分钟过期
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.SECONDS)
+    public void evictExpelledKeys() {
+        List<Item> expelledItems = new ArrayList<>();
+        hotKeyDetector.expelled().drainTo(expelledItems);
+        if (expelledItems.isEmpty()) {
+            return;
+        }
+        
+        Set<String> currentHotKeys = new HashSet<>();
+        for (Item item : hotKeyDetector.list()) {
+            currentHotKeys.add(item.key());
+        }
+        Set<String> coldKeys = new HashSet<>();
+        for (Item item : expelledItems) {
+            String key = item.key();
+            if (!currentHotKeys.contains(key) && !clusterHotKeyAggregator.isGlobalHot(key)) {
+                coldKeys.add(key);
+            }
+        }
+        if (coldKeys.isEmpty()) {
+            return;
+        }
+        
+        // 通过 Field 索引定位复合 Key，淘汰开销与本地缓存大小无关
+        for (String key : coldKeys) {
+            localCache.invalidateAll(fieldIndex.removeField(key));
+        }
+        log.debug("淘汰被挤出 TopK 的本地缓存，Key 数：{}", coldKeys.size());
+    }
+    
+    /**
+     * 停机时保存热点快照
+     * <p>
+     * 写入草图数组、当前 TopK 与本地缓存的 Key，新实例启动后据此预热，
+     * 避免滚动发布期间所有读请求都落到 Redis
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void saveSnapshot() {
+        if (!hotKeyProperties.isSnapshotEnabled()) {
+            return;
+        }
+        Path path = Path.of(hotKeyProperties.getSnapshotPath());
+        try {
+            Set<String> cacheKeys = localCache.asMap().keySet();
+            HotKeySnapshotFile.write(path, hotKeyProperties.getAlgorithm().name(), hotKeyDetector, cacheKeys);
+            log.info("热点快照已保存：{}，本地缓存 Key 数：{}", path, cacheKeys.size());
+        } catch (Exception e) {
+            log.error("热点快照保存失败：{}", path, e);
+        }
+    }
+    
+    /**
+     * 启动后恢复热点快照
+     * <p>
+     * 恢复流程：
+     * 1. 算法一致且检测器支持时直接恢复草图数组，否则用 TopK 列表重放计数
+     * 2. 本地缓存的 Key 按 Hash Key 分组，管道批量 HMGET 取最新值后写入本地缓存
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshot() {
+        if (!hotKeyProperties.isSnapshotEnabled()) {
+            return;
+        }
+        Path path = Path.of(hotKeyProperties.getSnapshotPath());
+        try {
+            HotKeySnapshotFile.Snapshot snapshot = HotKeySnapshotFile.read(path);
+            if (snapshot == null) {
+                return;
+            }
+            long ageMillis = System.currentTimeMillis() - snapshot.savedAt();
+            if (ageMillis > TimeUnit.SECONDS.toMillis(hotKeyProperties.getSnapshotMaxAgeSeconds())) {
+                log.info("热点快照已过期，忽略：{}，保存于 {} 秒前", path, ageMillis / 1000);
+                return;
+            }
+            restoreDetector(snapshot);
+            int warmed = warmLocalCache(snapshot.cacheKeys());
+            log.info("热点快照已恢复：{}，TopK 数：{}，预热本地缓存：{}", path, snapshot.topK().size(), warmed);
+        } catch (Exception e) {
+            log.error("热点快照恢复失败：{}", path, e);
+        }
+    }
+    
+    /**
+     * 恢复热点检测器
+     */
+    private void restoreDetector(HotKeySnapshotFile.Snapshot snapshot) {
+        boolean sameAlgorithm = hotKeyProperties.getAlgorithm().name().equals(snapshot.algorithm());
+        if (sameAlgorithm && snapshot.sketch() != null && hotKeyDetector instanceof SketchSnapshot sketchSnapshot
+                && sketchSnapshot.readSketch(snapshot.sketch())) {
+            sketchSnapshot.restoreTopK(snapshot.topK());
+            return;
+        }
+        // 算法或草图尺寸变了，只能重放 TopK 计数
+        for (Item item : snapshot.topK()) {
+            hotKeyDetector.add(item.key(), item.count());
+        }
+    }
+    
+    /**
+     * 批量从 Redis 读取快照中的热点值并写入本地缓存
+     *
+     * @param cacheKeys 本地缓存的复合 Key
+     * @return 写入本地缓存的数量
+     */
+    private int warmLocalCache(List<String> cacheKeys) {
+        if (cacheKeys.isEmpty()) {
+            return 0;
+        }
+        // Redis 操作：每个 Hash Key 一条 HMGET，管道一次往返
+        Map<String, Object> values = refreshLoader.loadAll(new HashSet<>(cacheKeys));
+        values.forEach(this::putLocal);
+        return values.size();
+    }
 }
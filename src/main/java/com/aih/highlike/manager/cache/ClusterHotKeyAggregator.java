@@ -0,0 +1,138 @@
+package com.aih.highlike.manager.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.IdUtil;
+import com.aih.highlike.config.HotKeyProperties;
+import com.aih.highlike.constant.CacheConstant;
+import com.aih.highlike.util.RedisKeyUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 集群热点 Key 汇总器
+ * <p>
+ * 每个节点的 TopK 只能看到负载均衡分到自己的那部分流量，N 个节点时，
+ * 一个博客需要 N 倍的真实流量才会在单个节点上成为热点。本类负责：
+ * 1. 将本地 TopK 列表按时间窗口写入本节点的 Redis ZSet（覆盖写入），
+ *    TopK 计数本身是累计值，同一窗口内多次上报只保留最近一次，不会重复累加
+ * 2. 读取上一个完整窗口各节点的上报并按 Key 求和，达到集群最小计数的取前 K 个作为全局热点集合
+ * <p>
+ * 窗口 Key 自带过期时间，节点上下线无需额外注册或清理。
+ */
+@Slf4j
+@Component
+public class ClusterHotKeyAggregator {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private HotKeyProperties hotKeyProperties;
+
+    /**
+     * 当前节点ID，区分各节点的上报
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    /**
+     * 全局热点集合，整体替换，读取无锁
+     */
+    private volatile Set<String> globalHotKeys = Set.of();
+
+    /**
+     * 上报本地 TopK 到当前窗口
+     *
+     * @param localTopK 本地 TopK 列表
+     */
+    public void publish(List<Item> localTopK) {
+        if (CollUtil.isEmpty(localTopK)) {
+            return;
+        }
+        long window = currentWindow();
+        String nodeKey = RedisKeyUtil.getGlobalHotKey(window, nodeId);
+        String nodesKey = RedisKeyUtil.getGlobalHotKeyNodesKey(window);
+        // 保留 3 个窗口，足够读取上一个完整窗口
+        long expireSeconds = CacheConstant.GLOBAL_HOT_KEY_WINDOW_SECONDS * 3L;
+        // Redis 操作：DEL + ZADD hotkey:global:{window}:{nodeId} + SADD hotkey:global:{window}:nodes {nodeId} + EXPIRE，管道一次往返
+        // 读取方只读上一个完整窗口，不会读到覆盖写入的中间状态
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.del(nodeKey);
+            for (Item item : localTopK) {
+                stringConnection.zAdd(nodeKey, item.count(), item.key());
+            }
+            stringConnection.expire(nodeKey, expireSeconds);
+            stringConnection.sAdd(nodesKey, nodeId);
+            stringConnection.expire(nodesKey, expireSeconds);
+            return null;
+        });
+    }
+
+    /**
+     * 从上一个完整窗口刷新全局热点集合
+     */
+    public void refresh() {
+        long window = currentWindow() - 1;
+        // Redis 操作：SMEMBERS hotkey:global:{window}:nodes
+        Set<String> nodeIds = stringRedisTemplate.opsForSet().members(RedisKeyUtil.getGlobalHotKeyNodesKey(window));
+        if (CollUtil.isEmpty(nodeIds)) {
+            globalHotKeys = Set.of();
+            return;
+        }
+        // Redis 操作：ZRANGE hotkey:global:{window}:{nodeId} 0 -1 WITHSCORES，管道批量执行
+        List<String> nodeKeys = nodeIds.stream().map(id -> RedisKeyUtil.getGlobalHotKey(window, id)).toList();
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            nodeKeys.forEach(nodeKey -> stringConnection.zRangeWithScores(nodeKey, 0, -1));
+            return null;
+        });
+
+        Map<String, Double> counts = new HashMap<>();
+        for (Object result : results) {
+            if (result instanceof Set<?> tuples) {
+                for (Object tuple : tuples) {
+                    ZSetOperations.TypedTuple<?> typedTuple = (ZSetOperations.TypedTuple<?>) tuple;
+                    if (typedTuple.getValue() != null && typedTuple.getScore() != null) {
+                        counts.merge(typedTuple.getValue().toString(), typedTuple.getScore(), Double::sum);
+                    }
+                }
+            }
+        }
+
+        int minCount = hotKeyProperties.getClusterMinCount();
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(counts.entrySet());
+        entries.removeIf(entry -> entry.getValue() < minCount);
+        entries.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        globalHotKeys = entries.stream()
+                .limit(CacheConstant.GLOBAL_HOT_KEY_TOP_K)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+        log.debug("集群热点刷新完成，窗口：{}，节点数：{}，热点数：{}", window, nodeIds.size(), globalHotKeys.size());
+    }
+
+    /**
+     * 判断 key 是否为集群热点
+     *
+     * @param key 键
+     * @return 是否为集群热点
+     */
+    public boolean isGlobalHot(String key) {
+        return globalHotKeys.contains(key);
+    }
+
+    private long currentWindow() {
+        return System.currentTimeMillis() / 1000 / CacheConstant.GLOBAL_HOT_KEY_WINDOW_SECONDS;
+    }
+}
@@ -0,0 +1,167 @@
+package com.aih.highlike.manager.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-Min Sketch + TopK 堆实现
+ * <p>
+ * 核心特点：
+ * 1. 每层一个计数数组，key 在每层映射到一个计数器并原子自增
+ * 2. 估计值取各层计数的最小值，只会高估、不会低估
+ * 3. 估计值超过阈值的 key 进入带索引的最小堆
+ * <p>
+ * 与 HeavyKeeper 相比没有指纹和概率衰减，更新更简单，但冲突严重时会高估冷 key。
+ */
+public class CountMinTopK implements TopK, SketchSnapshot {
+
+    /**
+     * int[] 元素的 VarHandle，用于原子更新计数
+     */
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * 计数数组宽度
+     */
+    private final int width;
+
+    /**
+     * 计数数组深度
+     */
+    private final int depth;
+
+    /**
+     * 平铺的计数数组，第 i 层第 j 个计数器位于 i * width + j
+     */
+    private final int[] counters;
+
+    /**
+     * 带索引的最小堆，维护 TopK
+     */
+    private final IndexedMinHeap minHeap;
+
+    /**
+     * 被挤出的元素队列（有界环形队列）
+     */
+    private final BlockingQueue<Item> expelledQueue;
+
+    /**
+     * 总访问次数
+     */
+    private final LongAdder total;
+
+    /**
+     * 最小计数阈值
+     */
+    private final int minCount;
+
+    /**
+     * 构造函数
+     *
+     * @param k        TopK 的 K 值
+     * @param width    计数数组宽度
+     * @param depth    计数数组深度
+     * @param minCount 最小计数阈值
+     */
+    public CountMinTopK(int k, int width, int depth, int minCount) {
+        this.width = width;
+        this.depth = depth;
+        this.minCount = minCount;
+        this.counters = new int[depth * width];
+        this.expelledQueue = new ExpelledRing();
+        this.minHeap = new IndexedMinHeap(k, expelledQueue);
+        this.total = new LongAdder();
+    }
+
+    @Override
+    public AddResult add(String key, int increment) {
+        long keyHash = KeyHash.hash64(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = i * width + KeyHash.index(keyHash, i, width);
+            int count = (int) COUNTERS.getAndAdd(counters, index, increment) + increment;
+            estimate = Math.min(estimate, count);
+        }
+
+        total.add(increment);
+
+        if (estimate < minCount) {
+            return AddResult.COLD;
+        }
+        return minHeap.offer(key, estimate);
+    }
+
+    @Override
+    public List<Item> list() {
+        return minHeap.list();
+    }
+
+    @Override
+    public BlockingQueue<Item> expelled() {
+        return expelledQueue;
+    }
+
+    @Override
+    public void fading() {
+        // 逐个计数器 CAS 减半，不影响并发的 add
+        for (int i = 0; i < counters.length; i++) {
+            while (true) {
+                int count = (int) COUNTERS.getVolatile(counters, i);
+                if (count == 0 || COUNTERS.compareAndSet(counters, i, count, count >> 1)) {
+                    break;
+                }
+            }
+        }
+
+        minHeap.halve();
+
+        long current = total.sumThenReset();
+        total.add(current >> 1);
+    }
+
+    @Override
+    public long total() {
+        return total.sum();
+    }
+
+    @Override
+    public int sketchBytes() {
+        return Long.BYTES + Integer.BYTES * 2 + Integer.BYTES * counters.length;
+    }
+
+    @Override
+    public void writeSketch(ByteBuffer buffer) {
+        buffer.putLong(total.sum()).putInt(width).putInt(depth);
+        buffer.asIntBuffer().put(counters);
+        buffer.position(buffer.position() + Integer.BYTES * counters.length);
+    }
+
+    @Override
+    public boolean readSketch(ByteBuffer buffer) {
+        if (buffer.remaining() < sketchBytes()) {
+            return false;
+        }
+        long savedTotal = buffer.getLong();
+        if (buffer.getInt() != width || buffer.getInt() != depth) {
+            return false;
+        }
+        buffer.asIntBuffer().get(counters);
+        buffer.position(buffer.position() + Integer.BYTES * counters.length);
+        total.reset();
+        total.add(savedTotal);
+        return true;
+    }
+
+    @Override
+    public void restoreTopK(List<Item> items) {
+        for (Item item : items) {
+            if (item.count() >= minCount) {
+                minHeap.offer(item.key(), item.count());
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.aih.highlike.manager.cache;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 被挤出元素的有界环形队列
+ * <p>
+ * 队列满时丢弃最旧的元素再写入，保证 offer 永不失败、内存占用恒定。
+ * 消费方来不及处理时，只会丢失较早被挤出的 key，这些 key 仍会在本地缓存到期后自然淘汰。
+ */
+class ExpelledRing extends ArrayBlockingQueue<Item> {
+
+    /**
+     * 默认容量
+     */
+    static final int DEFAULT_CAPACITY = 1024;
+
+    ExpelledRing() {
+        super(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public boolean offer(Item item) {
+        while (!super.offer(item)) {
+            // 队列已满，丢弃最旧的元素
+            poll();
+        }
+        return true;
+    }
+}
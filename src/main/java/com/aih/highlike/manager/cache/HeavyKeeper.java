@@ -1,12 +1,8 @@
 package com.aih.highlike.manager.cache;
 
-import cn.hutool.core.util.HashUtil;
-import cn.hutool.crypto.digest.DigestUtil;
-import org.springframework.util.DigestUtils;
-
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * HeavyKeeper 算法实现
@@ -25,11 +21,6 @@ public class HeavyKeeper implements TopK {
      */
     private static final int LOOKUP_TABLE_SIZE = 256;
     
-    /**
-     * TopK 的 K 值
-     */
-    private final int k;
-    
     /**
      * 桶数组宽度
      */
@@ -51,20 +42,15 @@ public class HeavyKeeper implements TopK {
     private final Bucket[][] buckets;
     
     /**
-     * 最小堆，维护 TopK
+     * 带索引的最小堆，维护 TopK
      */
-    private final PriorityQueue<Node> minHeap;
+    private final IndexedMinHeap minHeap;
     
     /**
-     * 被挤出的元素队列
+     * 被挤出的元素队列（有界环形队列）
      */
     private final BlockingQueue<Item> expelledQueue;
     
-    /**
-     * 随机数生成器
-     */
-    private final Random random;
-    
     /**
      * 总访问次数
      */
@@ -85,7 +71,6 @@ public class HeavyKeeper implements TopK {
      * @param minCount 最小计数阈值
      */
     public HeavyKeeper(int k, int width, int depth, double decay, int minCount) {
-        this.k = k;
         this.width = width;
         this.depth = depth;
         this.minCount = minCount;
@@ -104,10 +89,9 @@ public class HeavyKeeper implements TopK {
             }
         }
         
-        // 初始化最小堆
-        this.minHeap = new PriorityQueue<>(Comparator.comparingInt(n -> n.count));
-        this.expelledQueue = new LinkedBlockingQueue<>();
-        this.random = new Random();
+        // 初始化最小堆，容量即 K
+        this.expelledQueue = new ExpelledRing();
+        this.minHeap = new IndexedMinHeap(k, expelledQueue);
         this.total = 0;
     }
 
@@ -120,13 +104,15 @@ public class HeavyKeeper implements TopK {
      */
     @Override
     public AddResult add(String key, int increment) {
-        byte[] keyBytes = key.getBytes();
-        long itemFingerprint = hash(keyBytes);
+        // 只计算一次 64 位哈希，同时作为指纹，各层下标由双重哈希推导
+        long itemFingerprint = KeyHash.hash64(key);
+        // 线程本地随机数，避免多线程争用同一个 Random 的种子
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         int maxCount = 0;
         
         // 更新所有深度的桶
         for (int i = 0; i < depth; i++) {
-            int bucketNumber = Math.abs(hash(keyBytes, i)) % width;
+            int bucketNumber = KeyHash.index(itemFingerprint, i, width);
             Bucket bucket = buckets[i][bucketNumber];
             
             synchronized (bucket) {
@@ -164,53 +150,16 @@ public class HeavyKeeper implements TopK {
         
         // 如果计数小于阈值，不加入 TopK
         if (maxCount < minCount) {
-            return new AddResult(null, false, null);
+            return AddResult.COLD;
         }
         
         // 更新 TopK
-        synchronized (minHeap) {
-            boolean isHot = false;
-            String expelled = null;
-            
-            // 检查是否已在堆中
-            Optional<Node> existing = minHeap.stream()
-                    .filter(n -> n.key.equals(key))
-                    .findFirst();
-            
-            if (existing.isPresent()) {
-                // 已存在，更新计数
-                minHeap.remove(existing.get());
-                minHeap.add(new Node(key, maxCount));
-                isHot = true;
-            } else {
-                // 不存在，判断是否应该加入
-                if (minHeap.size() < k || maxCount >= Objects.requireNonNull(minHeap.peek()).count) {
-                    Node newNode = new Node(key, maxCount);
-                    if (minHeap.size() >= k) {
-                        // 堆已满，挤出最小的
-                        expelled = minHeap.poll().key;
-                        expelledQueue.offer(new Item(expelled, maxCount));
-                    }
-                    minHeap.add(newNode);
-                    isHot = true;
-                }
-            }
-            
-            return new AddResult(expelled, isHot, key);
-        }
+        return minHeap.offer(key, maxCount);
     }
     
     @Override
     public List<Item> list() {
-        synchronized (minHeap) {
-            List<Item> result = new ArrayList<>(minHeap.size());
-            for (Node node : minHeap) {
-                result.add(new Item(node.key, node.count));
-            }
-            // 按计数降序排序
-            result.sort((a, b) -> Integer.compare(b.count(), a.count()));
-            return result;
-        }
+        return minHeap.list();
     }
     
     @Override
@@ -230,14 +179,7 @@ public class HeavyKeeper implements TopK {
         }
         
         // 衰减堆中的计数
-        synchronized (minHeap) {
-            PriorityQueue<Node> newHeap = new PriorityQueue<>(Comparator.comparingInt(n -> n.count));
-            for (Node node : minHeap) {
-                newHeap.add(new Node(node.key, node.count >> 1));
-            }
-            minHeap.clear();
-            minHeap.addAll(newHeap);
-        }
+        minHeap.halve();
         
         total = total >> 1;
     }
@@ -247,34 +189,6 @@ public class HeavyKeeper implements TopK {
         return total;
     }
     
-    /**
-     * 哈希函数（用于计算指纹）
-     * 
-     * @param data 数据
-     * @return 哈希值
-     */
-    private static int hash(byte[] data) {
-        return HashUtil.murmur32(data);
-    }
-    
-    /**
-     * 带种子的哈希函数（用于在不同层计算不同的桶位置）
-     * <p>
-     * 种子的作用：确保同一个 Key 在不同层映射到不同的桶位置
-     * 实现原理：将种子与原始哈希值进行异或运算，产生不同的哈希值
-     * 
-     * @param data 数据
-     * @param seed 种子（通常使用层数 i 作为种子）
-     * @return 哈希值
-     */
-    private static int hash(byte[] data, int seed) {
-        // 方案：将种子与哈希值进行混合
-        // 使用异或和乘法来确保不同种子产生不同的哈希值
-        int baseHash = HashUtil.murmur32(data);
-        // 使用一个大质数与种子相乘，然后与基础哈希值异或
-        return baseHash ^ (seed * 0x9e3779b9);
-    }
-    
     /**
      * 桶结构
      */
@@ -289,17 +203,4 @@ public class HeavyKeeper implements TopK {
          */
         int count;
     }
-    
-    /**
-     * 堆节点
-     */
-    private static class Node {
-        final String key;
-        final int count;
-        
-        Node(String key, int count) {
-            this.key = key;
-            this.count = count;
-        }
-    }
 }
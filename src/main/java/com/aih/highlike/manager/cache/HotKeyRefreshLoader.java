@@ -0,0 +1,194 @@
+package com.aih.highlike.manager.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * 本地缓存的批量刷新加载器
+ * <p>
+ * 配合 Caffeine 的 refreshAfterWrite 使用：
+ * 1. 热点 Key 在过期前被访问时触发异步刷新，短时间内的刷新请求合并为一次管道 HMGET
+ * 2. 已不再是热点的 Key 刷新结果为 null，Caffeine 随即移除该条目，冷 Key 不会被续期
+ * <p>
+ * 刷新期间读请求仍返回旧值，热点 Key 在稳定状态下不会因过期而回源 Redis。
+ */
+@Slf4j
+class HotKeyRefreshLoader implements CacheLoader<String, Object>, AutoCloseable {
+
+    /**
+     * 刷新请求的合并窗口（毫秒）
+     */
+    private static final long BATCH_DELAY_MILLIS = 10;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 判断 Field 当前是否仍是热点
+     */
+    private final Predicate<String> hotKeyPredicate;
+
+    /**
+     * 等待合并执行的刷新请求
+     */
+    private final ConcurrentLinkedQueue<PendingRefresh> pendingRefreshes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 是否已安排一次批量刷新
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate   RedisTemplate
+     * @param hotKeyPredicate 判断 Field 是否仍是热点
+     */
+    HotKeyRefreshLoader(RedisTemplate<String, Object> redisTemplate, Predicate<String> hotKeyPredicate) {
+        this.redisTemplate = redisTemplate;
+        this.hotKeyPredicate = hotKeyPredicate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "local-cache-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 单个 Key 加载（读路径不使用，实现接口要求）
+     */
+    @Override
+    public Object load(String compositeKey) {
+        return loadAll(Set.of(compositeKey)).get(compositeKey);
+    }
+
+    /**
+     * 批量加载：按 Hash Key 分组，每组一条 HMGET，管道一次往返
+     *
+     * @param compositeKeys 复合 Key
+     * @return 复合 Key -> 值，Redis 中不存在的 Key 不在结果中
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> loadAll(Set<? extends String> compositeKeys) {
+        Map<String, List<String>> fieldsByHashKey = new LinkedHashMap<>();
+        for (String compositeKey : compositeKeys) {
+            fieldsByHashKey.computeIfAbsent(CacheManager.extractHashKey(compositeKey), hashKey -> new ArrayList<>())
+                    .add(CacheManager.extractKey(compositeKey));
+        }
+        if (fieldsByHashKey.isEmpty()) {
+            return Map.of();
+        }
+
+        // Redis 操作：每个 Hash Key 一条 HMGET，管道一次往返
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                HashOperations<String, String, Object> hashOperations =
+                        ((RedisOperations<String, Object>) operations).opsForHash();
+                fieldsByHashKey.forEach(hashOperations::multiGet);
+                return null;
+            }
+        });
+
+        Map<String, Object> values = new HashMap<>(compositeKeys.size() * 2);
+        int i = 0;
+        for (Map.Entry<String, List<String>> entry : fieldsByHashKey.entrySet()) {
+            List<Object> fieldValues = (List<Object>) results.get(i++);
+            List<String> fields = entry.getValue();
+            for (int j = 0; j < fields.size(); j++) {
+                Object value = fieldValues.get(j);
+                if (value != null) {
+                    values.put(CacheManager.buildCacheKey(entry.getKey(), fields.get(j)), value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 异步刷新
+     * <p>
+     * 冷 Key 直接返回 null 让 Caffeine 移除；热点 Key 进入队列，等待合并窗口结束后批量加载
+     */
+    @Override
+    public CompletableFuture<Object> asyncReload(String compositeKey, Object oldValue, Executor executor) {
+        if (!hotKeyPredicate.test(CacheManager.extractKey(compositeKey))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        pendingRefreshes.add(new PendingRefresh(compositeKey, future));
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * 执行一批刷新
+     */
+    private void flush() {
+        // 先清除标记再取队列，之后入队的请求会安排下一批
+        flushScheduled.set(false);
+        List<PendingRefresh> batch = new ArrayList<>();
+        for (PendingRefresh pending; (pending = pendingRefreshes.poll()) != null; ) {
+            batch.add(pending);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Set<String> compositeKeys = new HashSet<>(batch.size() * 2);
+        for (PendingRefresh pending : batch) {
+            compositeKeys.add(pending.compositeKey());
+        }
+        try {
+            Map<String, Object> values = loadAll(compositeKeys);
+            for (PendingRefresh pending : batch) {
+                pending.future().complete(values.get(pending.compositeKey()));
+            }
+            log.debug("本地缓存批量刷新完成，Key 数：{}", compositeKeys.size());
+        } catch (Exception e) {
+            // 刷新失败时保留旧值，下次访问再次触发刷新
+            log.error("本地缓存批量刷新失败，Key 数：{}", compositeKeys.size(), e);
+            for (PendingRefresh pending : batch) {
+                pending.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 等待执行的刷新请求
+     *
+     * @param compositeKey 复合 Key
+     * @param future       刷新结果
+     */
+    private record PendingRefresh(String compositeKey, CompletableFuture<Object> future) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.aih.highlike.manager.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 热点快照文件（内存映射读写）
+ * <p>
+ * 文件格式（大端序）：
+ * <pre>
+ * int    魔数 HKS1
+ * int    版本号
+ * long   保存时间（epoch 毫秒）
+ * string 算法名
+ * int    草图字节数，随后是草图内容（检测器不支持持久化时为 0）
+ * int    TopK 数量，随后每项为 string key + int count
+ * int    本地缓存 Key 数量，随后每项为 string 复合 Key
+ * </pre>
+ * string 编码为 int 长度 + UTF-8 字节。先写临时文件再原子替换，进程被强杀时不会留下半个快照。
+ */
+final class HotKeySnapshotFile {
+
+    private static final int MAGIC = 0x484B5331;
+
+    private static final int VERSION = 1;
+
+    private HotKeySnapshotFile() {
+    }
+
+    /**
+     * 读取到的快照
+     *
+     * @param savedAt   保存时间（epoch 毫秒）
+     * @param algorithm 保存时使用的算法名
+     * @param sketch    草图内容，没有时为 null
+     * @param topK      TopK 列表
+     * @param cacheKeys 本地缓存的复合 Key
+     */
+    record Snapshot(long savedAt, String algorithm, ByteBuffer sketch, List<Item> topK, List<String> cacheKeys) {
+    }
+
+    /**
+     * 写入快照
+     *
+     * @param path      快照文件路径
+     * @param algorithm 算法名
+     * @param detector  热点检测器
+     * @param cacheKeys 本地缓存的复合 Key
+     */
+    static void write(Path path, String algorithm, TopK detector, Collection<String> cacheKeys) throws IOException {
+        SketchSnapshot sketch = detector instanceof SketchSnapshot snapshot ? snapshot : null;
+        List<Item> topK = detector.list();
+
+        // 先编码字符串，算出文件总大小后一次性映射
+        byte[] algorithmBytes = encode(algorithm);
+        List<byte[]> topKKeys = new ArrayList<>(topK.size());
+        List<byte[]> cacheKeyBytes = new ArrayList<>(cacheKeys.size());
+        long size = Integer.BYTES * 2 + Long.BYTES + stringBytes(algorithmBytes) + Integer.BYTES * 3L;
+        for (Item item : topK) {
+            byte[] bytes = encode(item.key());
+            topKKeys.add(bytes);
+            size += stringBytes(bytes) + Integer.BYTES;
+        }
+        for (String cacheKey : cacheKeys) {
+            byte[] bytes = encode(cacheKey);
+            cacheKeyBytes.add(bytes);
+            size += stringBytes(bytes);
+        }
+        int sketchBytes = sketch == null ? 0 : sketch.sketchBytes();
+        size += sketchBytes;
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis());
+            putString(buffer, algorithmBytes);
+
+            buffer.putInt(sketchBytes);
+            if (sketch != null) {
+                // 草图写入一个固定长度的切片，避免并发 add 期间长度估算偏差破坏后续内容
+                ByteBuffer slice = buffer.slice(buffer.position(), sketchBytes);
+                sketch.writeSketch(slice);
+                buffer.position(buffer.position() + sketchBytes);
+            }
+
+            buffer.putInt(topK.size());
+            for (int i = 0; i < topK.size(); i++) {
+                putString(buffer, topKKeys.get(i));
+                buffer.putInt(topK.get(i).count());
+            }
+
+            buffer.putInt(cacheKeyBytes.size());
+            for (byte[] bytes : cacheKeyBytes) {
+                putString(buffer, bytes);
+            }
+            buffer.force();
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取快照
+     *
+     * @param path 快照文件路径
+     * @return 快照，文件不存在或格式不匹配时返回 null
+     */
+    static Snapshot read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 映射在 channel 关闭后仍然有效，草图切片由调用方直接读取
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < Integer.BYTES * 2 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long savedAt = buffer.getLong();
+            String algorithm = getString(buffer);
+
+            int sketchBytes = buffer.getInt();
+            ByteBuffer sketch = null;
+            if (sketchBytes > 0) {
+                sketch = buffer.slice(buffer.position(), sketchBytes);
+                buffer.position(buffer.position() + sketchBytes);
+            }
+
+            int topKSize = buffer.getInt();
+            List<Item> topK = new ArrayList<>(topKSize);
+            for (int i = 0; i < topKSize; i++) {
+                topK.add(new Item(getString(buffer), buffer.getInt()));
+            }
+
+            int cacheKeySize = buffer.getInt();
+            List<String> cacheKeys = new ArrayList<>(cacheKeySize);
+            for (int i = 0; i < cacheKeySize; i++) {
+                cacheKeys.add(getString(buffer));
+            }
+            return new Snapshot(savedAt, algorithm, sketch, topK, cacheKeys);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long stringBytes(byte[] bytes) {
+        return Integer.BYTES + bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
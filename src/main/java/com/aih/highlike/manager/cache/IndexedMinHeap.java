@@ -0,0 +1,241 @@
+package com.aih.highlike.manager.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * 带索引的 TopK 最小堆
+ * <p>
+ * 相比 PriorityQueue + stream 查找：
+ * 1. 维护 key -> 堆节点的索引，节点记录自身在数组中的槽位，更新计数后原地上浮/下沉，O(log k)
+ * 2. 堆已满且计数不超过堆顶时，无需加锁直接返回（快速路径）
+ * 3. 成员判断通过 ConcurrentHashMap 完成，同样无需加锁
+ */
+class IndexedMinHeap {
+
+    /**
+     * 堆容量，即 TopK 的 K 值
+     */
+    private final int capacity;
+
+    /**
+     * 堆数组，heap[0] 为计数最小的节点
+     */
+    private final Node[] heap;
+
+    /**
+     * key -> 堆节点索引
+     */
+    private final Map<String, Node> index;
+
+    /**
+     * 被挤出的元素队列
+     */
+    private final BlockingQueue<Item> expelledQueue;
+
+    /**
+     * 当前堆大小，只在锁内修改
+     */
+    private int size;
+
+    /**
+     * 进入堆所需的最小计数：堆未满时为 0，堆满时为堆顶计数
+     * <p>
+     * volatile 保证快速路径能读到锁内写入的最新值
+     */
+    private volatile int admissionCount;
+
+    IndexedMinHeap(int capacity, BlockingQueue<Item> expelledQueue) {
+        this.capacity = capacity;
+        this.heap = new Node[capacity];
+        this.index = new ConcurrentHashMap<>(capacity * 2);
+        this.expelledQueue = expelledQueue;
+    }
+
+    /**
+     * 用最新计数更新 key 在堆中的位置
+     *
+     * @param key   键
+     * @param count 最新计数
+     * @return 添加结果
+     */
+    AddResult offer(String key, int count) {
+        Node existing = index.get(key);
+        // 快速路径：不在堆中且无法挤掉堆顶
+        if (existing == null && count < admissionCount) {
+            return AddResult.COLD;
+        }
+        // 快速路径：已在堆中且计数未变化
+        if (existing != null && existing.count == count) {
+            return existing.hotResult;
+        }
+
+        synchronized (this) {
+            Node node = index.get(key);
+            if (node != null) {
+                // 已存在，原地更新计数
+                int old = node.count;
+                node.count = count;
+                if (count > old) {
+                    siftDown(node.slot);
+                } else {
+                    siftUp(node.slot);
+                }
+                refreshAdmissionCount();
+                return node.hotResult;
+            }
+
+            String expelled = null;
+            if (size < capacity) {
+                node = new Node(key, count);
+                node.slot = size;
+                heap[size++] = node;
+                index.put(key, node);
+                siftUp(node.slot);
+            } else if (count >= heap[0].count) {
+                // 堆已满，替换堆顶
+                Node min = heap[0];
+                index.remove(min.key);
+                expelled = min.key;
+                expelledQueue.offer(new Item(min.key, min.count));
+
+                node = new Node(key, count);
+                node.slot = 0;
+                heap[0] = node;
+                index.put(key, node);
+                siftDown(0);
+            } else {
+                return AddResult.COLD;
+            }
+            refreshAdmissionCount();
+            return expelled == null ? node.hotResult : new AddResult(expelled, true, key);
+        }
+    }
+
+    /**
+     * 判断 key 是否在堆中
+     */
+    boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * 获取堆中元素，按计数降序
+     */
+    synchronized List<Item> list() {
+        List<Item> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Item(heap[i].key, heap[i].count));
+        }
+        result.sort((a, b) -> Integer.compare(b.count(), a.count()));
+        return result;
+    }
+
+    /**
+     * 所有计数减半
+     * <p>
+     * 减半是单调变换，不会破坏堆序，无需重建堆
+     */
+    synchronized void halve() {
+        for (int i = 0; i < size; i++) {
+            heap[i].count >>= 1;
+        }
+        refreshAdmissionCount();
+    }
+
+    /**
+     * 按最新计数重新评分所有元素
+     * <p>
+     * 计数低于阈值的元素移出堆并放入被挤出队列，其余元素重建堆序。
+     * 只遍历堆中的 K 个元素，不涉及草图。
+     *
+     * @param counter  key -> 最新计数
+     * @param minCount 保留在堆中的最小计数
+     */
+    synchronized void rescore(ToIntFunction<String> counter, int minCount) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Node node = heap[i];
+            node.count = counter.applyAsInt(node.key);
+            if (node.count < minCount) {
+                index.remove(node.key);
+                expelledQueue.offer(new Item(node.key, node.count));
+            } else {
+                place(node, kept++);
+            }
+        }
+        for (int i = kept; i < size; i++) {
+            heap[i] = null;
+        }
+        size = kept;
+        // 自底向上建堆，O(k)
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        refreshAdmissionCount();
+    }
+
+    private void refreshAdmissionCount() {
+        admissionCount = size < capacity ? 0 : heap[0].count;
+    }
+
+    private void siftUp(int slot) {
+        Node node = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (heap[parent].count <= node.count) {
+                break;
+            }
+            place(heap[parent], slot);
+            slot = parent;
+        }
+        place(node, slot);
+    }
+
+    private void siftDown(int slot) {
+        Node node = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (node.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], slot);
+            slot = child;
+        }
+        place(node, slot);
+    }
+
+    private void place(Node node, int slot) {
+        heap[slot] = node;
+        node.slot = slot;
+    }
+
+    /**
+     * 堆节点
+     */
+    private static class Node {
+        final String key;
+        volatile int count;
+        int slot;
+
+        /**
+         * 该节点复用的热点结果，避免热 Key 每次 add 都分配 AddResult
+         */
+        final AddResult hotResult;
+
+        Node(String key, int count) {
+            this.key = key;
+            this.count = count;
+            this.hotResult = new AddResult(null, true, key);
+        }
+    }
+}
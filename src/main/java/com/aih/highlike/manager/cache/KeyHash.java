@@ -0,0 +1,68 @@
+package com.aih.highlike.manager.cache;
+
+/**
+ * TopK 使用的 Key 哈希工具
+ * <p>
+ * 直接遍历 String 的字符计算 64 位哈希，不调用 getBytes，不产生任何临时对象。
+ * 各层桶下标由同一个 64 位哈希通过双重哈希（h1 + i * h2）推导，每次 add 只需计算一次哈希。
+ * <p>
+ * 打散函数 {@link #mix64} 同时供分段锁等按数值 Key 分段的场景复用
+ */
+public final class KeyHash {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private KeyHash() {
+    }
+
+    /**
+     * 计算 64 位哈希
+     * <p>
+     * FNV-1a 逐字符累积，再用 MurmurHash3 的 fmix64 打散高低位
+     *
+     * @param key 键
+     * @return 64 位哈希值
+     */
+    static long hash64(String key) {
+        long h = FNV_OFFSET;
+        for (int i = 0, len = key.length(); i < len; i++) {
+            h ^= key.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return mix64(h);
+    }
+
+    /**
+     * MurmurHash3 的 fmix64，把输入的每一位扩散到输出的全部位上
+     * <p>
+     * 连续的数值（如自增ID）打散后取低位也能均匀分布
+     *
+     * @param h 输入值
+     * @return 打散后的值
+     */
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 由 64 位哈希推导第 row 层的桶下标
+     *
+     * @param hash  hash64 的结果
+     * @param row   层号
+     * @param width 桶数组宽度
+     * @return 桶下标，范围 [0, width)
+     */
+    static int index(long hash, int row, int width) {
+        int h1 = (int) hash;
+        // h2 取奇数，保证各层步长不为 0
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
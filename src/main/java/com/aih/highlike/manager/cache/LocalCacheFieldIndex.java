@@ -0,0 +1,68 @@
+package com.aih.highlike.manager.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 本地缓存的 Field -> 复合 Key 索引
+ * <p>
+ * 热点检测器按 Field 计数，被挤出 TopK 时需要淘汰该 Field 对应的全部复合 Key，
+ * 通过索引直接定位，不必遍历整个本地缓存：
+ * 1. 写入本地缓存之后登记，登记后再确认仍在缓存中：写入后立即被淘汰时，
+ *    移除监听器可能先于登记执行，此时由登记方注销
+ * 2. 条目被移除时（淘汰、过期、失效）在同一个 Field 的锁内确认已不在缓存中再注销，
+ *    与并发的重新写入互不覆盖
+ */
+class LocalCacheFieldIndex {
+
+    /**
+     * Field -> 复合 Key 集合，集合只在 compute 中修改
+     */
+    private final ConcurrentHashMap<String, Set<String>> index = new ConcurrentHashMap<>();
+
+    /**
+     * 登记复合 Key，需在写入本地缓存之后调用
+     *
+     * @param compositeKey 复合 Key
+     * @param cached       判断复合 Key 是否仍在本地缓存中
+     */
+    void add(String compositeKey, Predicate<String> cached) {
+        index.compute(CacheManager.extractKey(compositeKey), (field, compositeKeys) -> {
+            Set<String> keys = compositeKeys != null ? compositeKeys : new HashSet<>();
+            keys.add(compositeKey);
+            return keys;
+        });
+        // 登记之前已被淘汰的条目，移除监听器已执行完毕，不会再注销
+        if (!cached.test(compositeKey)) {
+            remove(compositeKey, cached);
+        }
+    }
+
+    /**
+     * 注销复合 Key，仍在本地缓存中（已被重新写入）时保留
+     *
+     * @param compositeKey 复合 Key
+     * @param cached       判断复合 Key 是否仍在本地缓存中
+     */
+    void remove(String compositeKey, Predicate<String> cached) {
+        index.computeIfPresent(CacheManager.extractKey(compositeKey), (field, compositeKeys) -> {
+            if (!cached.test(compositeKey)) {
+                compositeKeys.remove(compositeKey);
+            }
+            return compositeKeys.isEmpty() ? null : compositeKeys;
+        });
+    }
+
+    /**
+     * 取出 Field 对应的全部复合 Key
+     *
+     * @param field Field
+     * @return 复合 Key 集合，没有时返回空集合
+     */
+    Set<String> removeField(String field) {
+        Set<String> compositeKeys = index.remove(field);
+        return compositeKeys != null ? compositeKeys : Set.of();
+    }
+}
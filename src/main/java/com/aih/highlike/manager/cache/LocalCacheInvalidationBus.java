@@ -0,0 +1,101 @@
+package com.aih.highlike.manager.cache;
+
+import cn.hutool.core.util.IdUtil;
+import com.aih.highlike.constant.CacheConstant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 本地缓存失效广播
+ * <p>
+ * 本地缓存只在处理写请求的节点上更新，其他节点的副本在过期前会一直返回旧值。本类通过 Redis Pub/Sub：
+ * 1. 写请求所在节点广播变更的复合 Key
+ * 2. 其他节点收到后淘汰自己的本地副本，下次读取重新从 Redis 加载
+ * <p>
+ * Pub/Sub 不保证送达（如订阅连接断开期间的消息会丢失），本地缓存的过期时间仍是兜底。
+ */
+@Slf4j
+@Component
+public class LocalCacheInvalidationBus implements MessageListener {
+
+    /**
+     * 消息中节点 ID 与复合 Key 的分隔符
+     */
+    private static final char SEPARATOR = '|';
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 当前节点 ID，每次启动重新生成
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    /**
+     * 收到其他节点的失效消息时的处理器
+     */
+    private final List<Consumer<String>> invalidationHandlers = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this,
+                new ChannelTopic(CacheConstant.LOCAL_CACHE_INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * 注册失效处理器，可注册多个，按注册顺序调用
+     *
+     * @param handler 处理器，参数为复合 Key
+     */
+    public void onInvalidate(Consumer<String> handler) {
+        invalidationHandlers.add(handler);
+    }
+
+    /**
+     * 广播复合 Key 已变更
+     *
+     * @param compositeKey 复合 Key
+     */
+    public void publish(String compositeKey) {
+        try {
+            // Redis 操作：PUBLISH cache:invalidate {nodeId}|{compositeKey}
+            stringRedisTemplate.convertAndSend(CacheConstant.LOCAL_CACHE_INVALIDATION_CHANNEL,
+                    nodeId + SEPARATOR + compositeKey);
+        } catch (Exception e) {
+            // 广播失败不影响写请求，其他节点的副本由过期时间兜底
+            log.error("本地缓存失效广播失败：{}", compositeKey, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separatorIndex = body.indexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            return;
+        }
+        // 忽略自己发出的消息，本节点在写入时已更新本地缓存
+        if (separatorIndex == nodeId.length() && body.startsWith(nodeId)) {
+            return;
+        }
+        String compositeKey = body.substring(separatorIndex + 1);
+        for (Consumer<String> handler : invalidationHandlers) {
+            handler.accept(compositeKey);
+        }
+    }
+}
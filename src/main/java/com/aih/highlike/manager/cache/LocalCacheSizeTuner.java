@@ -0,0 +1,131 @@
+package com.aih.highlike.manager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 本地缓存内存预算自动调整
+ * <p>
+ * 按命中率曲线做爬山调整：
+ * 1. 上个周期发生了淘汰，说明预算不够，预算增加一个步长（不超过上限）
+ * 2. 上次增加预算后命中率几乎没有提升，说明已到曲线平坦处，退回一个步长把内存还给堆，并保持一段时间
+ * 3. 其余情况保持不变
+ * <p>
+ * 每个周期只看两次调用之间的统计增量，流量变化后能重新找到合适的预算。
+ */
+@Slf4j
+class LocalCacheSizeTuner {
+
+    /**
+     * 每次调整的比例
+     */
+    private static final double STEP_RATIO = 0.25;
+
+    /**
+     * 增加预算后命中率至少要提升的幅度，否则视为不值得
+     */
+    private static final double MIN_HIT_RATE_GAIN = 0.005;
+
+    /**
+     * 退回预算后保持不变的周期数，避免在两个预算之间来回振荡
+     */
+    private static final int HOLD_CYCLES = 10;
+
+    private final Cache<String, Object> cache;
+
+    private final long minBytes;
+
+    private final long maxBytes;
+
+    /**
+     * 当前预算
+     */
+    private volatile long budgetBytes;
+
+    /**
+     * 上个周期结束时的累计统计
+     */
+    private CacheStats lastStats;
+
+    /**
+     * 上个周期的命中率
+     */
+    private double lastHitRate = -1;
+
+    /**
+     * 上次调整是否为增加预算
+     */
+    private boolean lastGrew;
+
+    /**
+     * 剩余的保持周期数
+     */
+    private int holdCycles;
+
+    /**
+     * 构造函数
+     *
+     * @param cache         本地缓存（需开启 recordStats）
+     * @param initialBytes  初始预算
+     * @param minBytes      预算下限
+     * @param maxBytes      预算上限
+     */
+    LocalCacheSizeTuner(Cache<String, Object> cache, long initialBytes, long minBytes, long maxBytes) {
+        this.cache = cache;
+        this.minBytes = minBytes;
+        this.maxBytes = Math.max(minBytes, maxBytes);
+        this.budgetBytes = Math.min(Math.max(initialBytes, minBytes), this.maxBytes);
+        this.lastStats = cache.stats();
+        applyBudget();
+    }
+
+    /**
+     * 当前预算（字节）
+     */
+    long budgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * 执行一个调整周期
+     */
+    synchronized void tune() {
+        CacheStats current = cache.stats();
+        CacheStats window = current.minus(lastStats);
+        lastStats = current;
+        if (window.requestCount() == 0) {
+            return;
+        }
+        double hitRate = window.hitRate();
+        if (holdCycles > 0) {
+            holdCycles--;
+            lastHitRate = hitRate;
+            return;
+        }
+        long step = Math.max(1, (long) (budgetBytes * STEP_RATIO));
+        long previousBudget = budgetBytes;
+
+        if (lastGrew && hitRate - lastHitRate < MIN_HIT_RATE_GAIN) {
+            budgetBytes = Math.max(minBytes, budgetBytes - step);
+            lastGrew = false;
+            holdCycles = HOLD_CYCLES;
+        } else if (window.evictionCount() > 0 && budgetBytes < maxBytes) {
+            budgetBytes = Math.min(maxBytes, budgetBytes + step);
+            lastGrew = true;
+        } else {
+            lastGrew = false;
+        }
+        lastHitRate = hitRate;
+
+        if (budgetBytes != previousBudget) {
+            applyBudget();
+            log.info("本地缓存内存预算调整：{} -> {} 字节，周期命中率：{}，淘汰数：{}",
+                    previousBudget, budgetBytes, String.format("%.4f", hitRate), window.evictionCount());
+        }
+    }
+
+    private void applyBudget() {
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(budgetBytes));
+    }
+}
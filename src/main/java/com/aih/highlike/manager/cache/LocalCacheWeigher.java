@@ -0,0 +1,90 @@
+package com.aih.highlike.manager.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 本地缓存条目的内存估算
+ * <p>
+ * 按估算的堆占用字节数给条目称重，使本地缓存按内存预算而不是条目数淘汰：
+ * 1. 每个条目固定计入 Caffeine 节点与哈希表的开销
+ * 2. 字符串按对象头 + 数组头 + 字符数估算（Latin-1 紧凑字符串，每字符 1 字节）
+ * 3. 数字、布尔等小对象按对象大小计
+ * 4. Map、集合按元素个数估算
+ * 5. 其他对象（如 BlogVO）按实例字段数估算，字段数按类缓存，写入与刷新时不做序列化
+ */
+class LocalCacheWeigher implements Weigher<String, Object> {
+
+    /**
+     * Caffeine 节点、哈希表槽位等每个条目的固定开销
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    /**
+     * String 对象头 + byte[] 数组头
+     */
+    private static final int STRING_OVERHEAD = 40;
+
+    /**
+     * Long、Integer、Boolean 等包装类型的大小
+     */
+    private static final int BOXED_SIZE = 16;
+
+    /**
+     * 普通对象的对象头
+     */
+    private static final int OBJECT_HEADER = 16;
+
+    /**
+     * 每个实例字段（或 Map、集合元素）的平均大小：引用加上字段值对象（短字符串、包装类型、时间等）
+     */
+    private static final int FIELD_SIZE = 64;
+
+    /**
+     * 类 -> 实例字段数（含父类）
+     */
+    private static final ClassValue<Integer> FIELD_COUNTS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int count = 0;
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    };
+
+    @Override
+    public int weigh(String key, Object value) {
+        long weight = ENTRY_OVERHEAD + stringSize(key) + valueSize(value);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static long stringSize(String value) {
+        return STRING_OVERHEAD + value.length();
+    }
+
+    private static long valueSize(Object value) {
+        if (value instanceof String string) {
+            return stringSize(string);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return BOXED_SIZE;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return OBJECT_HEADER + 2L * map.size() * FIELD_SIZE;
+        }
+        if (value instanceof Collection<?> collection) {
+            return OBJECT_HEADER + (long) collection.size() * FIELD_SIZE;
+        }
+        return OBJECT_HEADER + (long) FIELD_COUNTS.get(value.getClass()) * FIELD_SIZE;
+    }
+}
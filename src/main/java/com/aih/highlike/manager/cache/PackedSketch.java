@@ -0,0 +1,216 @@
+package com.aih.highlike.manager.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于 long[] 的无锁 HeavyKeeper 计数草图（不含 TopK 堆）
+ * <p>
+ * 每个桶是一个 long：高 32 位存指纹、低 32 位存计数，计数为 0 即空桶。
+ * 所有桶平铺在一个数组中，第 i 层第 j 个桶位于 i * width + j，通过 VarHandle CAS 更新。
+ */
+class PackedSketch {
+
+    /**
+     * 衰减查找表大小
+     */
+    private static final int LOOKUP_TABLE_SIZE = 256;
+
+    /**
+     * 计数所占的低 32 位掩码
+     */
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    /**
+     * long[] 元素的 VarHandle，用于 CAS 更新桶
+     */
+    private static final VarHandle BUCKETS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * 桶数组宽度
+     */
+    private final int width;
+
+    /**
+     * 桶数组深度
+     */
+    private final int depth;
+
+    /**
+     * 衰减概率查找表
+     */
+    private final double[] lookupTable;
+
+    /**
+     * 平铺的桶数组
+     */
+    private final long[] buckets;
+
+    PackedSketch(int width, int depth, double decay) {
+        this.width = width;
+        this.depth = depth;
+        this.lookupTable = new double[LOOKUP_TABLE_SIZE];
+        for (int i = 0; i < LOOKUP_TABLE_SIZE; i++) {
+            lookupTable[i] = Math.pow(decay, i);
+        }
+        this.buckets = new long[depth * width];
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param keyHash   KeyHash.hash64 的结果
+     * @param increment 增量
+     * @return 当前 key 在各层中的最大计数
+     */
+    int add(long keyHash, int increment) {
+        // 高 32 位作为指纹，各层下标由双重哈希推导
+        int fingerprint = (int) (keyHash >>> 32);
+        int maxCount = 0;
+        for (int i = 0; i < depth; i++) {
+            int index = i * width + KeyHash.index(keyHash, i, width);
+            maxCount = Math.max(maxCount, updateBucket(index, fingerprint, increment));
+        }
+        return maxCount;
+    }
+
+    /**
+     * 查询 key 的估计计数（不修改草图）
+     *
+     * @param keyHash KeyHash.hash64 的结果
+     * @return 指纹匹配的桶中的最大计数，没有匹配时为 0
+     */
+    int estimate(long keyHash) {
+        int fingerprint = (int) (keyHash >>> 32);
+        int maxCount = 0;
+        for (int i = 0; i < depth; i++) {
+            long word = (long) BUCKETS.getVolatile(buckets, i * width + KeyHash.index(keyHash, i, width));
+            if (fingerprint(word) == fingerprint) {
+                maxCount = Math.max(maxCount, count(word));
+            }
+        }
+        return maxCount;
+    }
+
+    /**
+     * 所有桶的计数减半
+     * <p>
+     * 逐个桶 CAS，不影响并发的 add
+     */
+    void halve() {
+        for (int i = 0; i < buckets.length; i++) {
+            while (true) {
+                long word = (long) BUCKETS.getVolatile(buckets, i);
+                int bucketCount = count(word);
+                if (bucketCount == 0
+                        || BUCKETS.compareAndSet(buckets, i, word, pack(fingerprint(word), bucketCount >> 1))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 清空所有桶
+     */
+    void clear() {
+        Arrays.fill(buckets, 0L);
+    }
+
+    /**
+     * 序列化后的字节数：宽度、深度与桶数组
+     */
+    int snapshotBytes() {
+        return Integer.BYTES * 2 + Long.BYTES * buckets.length;
+    }
+
+    /**
+     * 将宽度、深度与桶数组写入缓冲区
+     * <p>
+     * 与并发的 add 没有同步，写入的是近似一致的视图，对计数草图足够
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(width).putInt(depth);
+        buffer.asLongBuffer().put(buckets);
+        buffer.position(buffer.position() + Long.BYTES * buckets.length);
+    }
+
+    /**
+     * 从缓冲区恢复桶数组
+     *
+     * @return 尺寸与当前草图一致并恢复成功时返回 true
+     */
+    boolean readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < snapshotBytes() || buffer.getInt() != width || buffer.getInt() != depth) {
+            return false;
+        }
+        buffer.asLongBuffer().get(buckets);
+        buffer.position(buffer.position() + Long.BYTES * buckets.length);
+        return true;
+    }
+
+    /**
+     * CAS 更新单个桶
+     *
+     * @param index       桶下标
+     * @param fingerprint 当前 key 的指纹
+     * @param increment   增量
+     * @return 当前 key 在该桶上的计数，桶被其他 key 占据时返回 0
+     */
+    private int updateBucket(int index, int fingerprint, int increment) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            long word = (long) BUCKETS.getVolatile(buckets, index);
+            int bucketCount = count(word);
+            long next;
+            int result;
+
+            if (bucketCount == 0) {
+                // 桶为空，直接占据
+                next = pack(fingerprint, increment);
+                result = increment;
+            } else if (fingerprint(word) == fingerprint) {
+                // 指纹匹配，增加计数（饱和到 int 最大值）
+                result = (int) Math.min((long) bucketCount + increment, Integer.MAX_VALUE);
+                next = pack(fingerprint, result);
+            } else {
+                // 哈希冲突，概率衰减
+                int decayed = bucketCount;
+                result = 0;
+                for (int j = 0; j < increment; j++) {
+                    double decayProb = lookupTable[Math.min(decayed, LOOKUP_TABLE_SIZE - 1)];
+                    if (random.nextDouble() < decayProb) {
+                        decayed--;
+                        if (decayed == 0) {
+                            result = increment - j;
+                            break;
+                        }
+                    }
+                }
+                next = result > 0 ? pack(fingerprint, result) : pack(fingerprint(word), decayed);
+            }
+
+            if (next == word || BUCKETS.compareAndSet(buckets, index, word, next)) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 将指纹与计数打包为一个 long
+     */
+    private static long pack(int fingerprint, int count) {
+        return ((long) fingerprint << 32) | (count & COUNT_MASK);
+    }
+
+    private static int fingerprint(long word) {
+        return (int) (word >>> 32);
+    }
+
+    private static int count(long word) {
+        return (int) (word & COUNT_MASK);
+    }
+}
@@ -0,0 +1,40 @@
+package com.aih.highlike.manager.cache;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * 可持久化计数草图的热点检测器
+ * <p>
+ * 重启预热时，实现了本接口的检测器直接恢复草图数组，长尾 key 的计数也一并保留；
+ * 未实现的检测器只能通过 add 重放 TopK 列表
+ */
+interface SketchSnapshot {
+
+    /**
+     * 草图序列化后的字节数
+     */
+    int sketchBytes();
+
+    /**
+     * 将草图写入缓冲区，写入 {@link #sketchBytes()} 个字节
+     *
+     * @param buffer 目标缓冲区
+     */
+    void writeSketch(ByteBuffer buffer);
+
+    /**
+     * 从缓冲区恢复草图
+     *
+     * @param buffer 源缓冲区
+     * @return 草图尺寸与当前配置一致并恢复成功时返回 true，否则不修改草图并返回 false
+     */
+    boolean readSketch(ByteBuffer buffer);
+
+    /**
+     * 恢复草图后，用快照中的 TopK 列表重建堆（不再累加草图计数）
+     *
+     * @param items TopK 列表
+     */
+    void restoreTopK(List<Item> items);
+}
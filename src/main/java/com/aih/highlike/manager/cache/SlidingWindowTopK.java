@@ -0,0 +1,201 @@
+package com.aih.highlike.manager.cache;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 滑动窗口 TopK
+ * <p>
+ * 全局减半的 HeavyKeeper 会让 5 分钟前爆火的博客看起来比正在爆火的更热，
+ * 且每次衰减都要遍历全部桶。本类的"热点"定义为最近 N 秒内的热点：
+ * 1. 窗口由一圈小草图组成，每个草图对应一个时间片，写入只落在当前时间片
+ * 2. key 的窗口计数 = 窗口内各时间片草图估计值之和
+ * 3. 时间片到期时切换到预先清空的备用草图，再清空移出窗口的最旧草图作为下一个备用，
+ *    堆中 K 个元素按窗口计数重新评分
+ * <p>
+ * 每个时间片只承担窗口内 1/sliceCount 的流量，草图宽度按时间片数平均分配，总内存与单个草图相当。
+ * 时间片轮转由后台线程按时间片边界执行，add 不做清空与重新评分；
+ * 正在清空的草图不在窗口内，也不是当前时间片，并发的 add 不会写入其中。
+ */
+public class SlidingWindowTopK implements TopK, AutoCloseable {
+
+    /**
+     * 时间片草图环，比时间片数量多一个备用草图
+     */
+    private final PackedSketch[] slices;
+
+    /**
+     * 每个时间片的访问次数
+     */
+    private final LongAdder[] sliceTotals;
+
+    /**
+     * 时间片长度（毫秒）
+     */
+    private final long sliceMillis;
+
+    /**
+     * 带索引的最小堆，维护 TopK
+     */
+    private final IndexedMinHeap minHeap;
+
+    /**
+     * 被挤出的元素队列（有界环形队列）
+     */
+    private final BlockingQueue<Item> expelledQueue;
+
+    /**
+     * 最小计数阈值
+     */
+    private final int minCount;
+
+    /**
+     * 窗口内的时间片数量
+     */
+    private final int sliceCount;
+
+    /**
+     * 后台轮转线程
+     */
+    private final ScheduledExecutorService rotator;
+
+    /**
+     * 当前时间片编号（epoch 毫秒 / 时间片长度）
+     */
+    private volatile long currentEpoch;
+
+    /**
+     * 当前时间片在环中的下标
+     */
+    private volatile int currentIndex;
+
+    /**
+     * 构造函数
+     *
+     * @param k           TopK 的 K 值
+     * @param width       窗口总宽度，按时间片数平均分配给每个时间片草图
+     * @param depth       每个时间片草图的深度
+     * @param decay       衰减系数
+     * @param minCount    窗口内最小计数阈值
+     * @param sliceCount  时间片数量
+     * @param sliceMillis 时间片长度（毫秒），窗口长度 = sliceCount × sliceMillis
+     */
+    public SlidingWindowTopK(int k, int width, int depth, double decay, int minCount,
+                             int sliceCount, long sliceMillis) {
+        this.minCount = minCount;
+        this.sliceMillis = sliceMillis;
+        this.sliceCount = sliceCount;
+        int sliceWidth = Math.max(1, width / sliceCount);
+        this.slices = new PackedSketch[sliceCount + 1];
+        this.sliceTotals = new LongAdder[sliceCount + 1];
+        for (int i = 0; i < slices.length; i++) {
+            slices[i] = new PackedSketch(sliceWidth, depth, decay);
+            sliceTotals[i] = new LongAdder();
+        }
+        this.expelledQueue = new ExpelledRing();
+        this.minHeap = new IndexedMinHeap(k, expelledQueue);
+        long now = System.currentTimeMillis();
+        this.currentEpoch = now / sliceMillis;
+        this.rotator = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "topk-slice-rotator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 对齐到下一个时间片边界
+        rotator.scheduleAtFixedRate(this::rotate, sliceMillis - now % sliceMillis, sliceMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public AddResult add(String key, int increment) {
+        long keyHash = KeyHash.hash64(key);
+        int index = currentIndex;
+        slices[index].add(keyHash, increment);
+        sliceTotals[index].add(increment);
+
+        int windowCount = windowCount(keyHash);
+        if (windowCount < minCount) {
+            return AddResult.COLD;
+        }
+        return minHeap.offer(key, windowCount);
+    }
+
+    @Override
+    public List<Item> list() {
+        return minHeap.list();
+    }
+
+    @Override
+    public BlockingQueue<Item> expelled() {
+        return expelledQueue;
+    }
+
+    /**
+     * 滑动窗口没有全量减半，衰减只是补做到期未执行的时间片轮转
+     */
+    @Override
+    public void fading() {
+        rotate();
+    }
+
+    @Override
+    public long total() {
+        long total = 0;
+        int index = currentIndex;
+        for (int i = 0; i < sliceCount; i++) {
+            total += sliceTotals[Math.floorMod(index - i, slices.length)].sum();
+        }
+        return total;
+    }
+
+    /**
+     * 停止后台轮转线程
+     */
+    @Override
+    public void close() {
+        rotator.shutdownNow();
+    }
+
+    /**
+     * 计算 key 在整个窗口内的估计计数，不包含备用草图
+     */
+    private int windowCount(long keyHash) {
+        long sum = 0;
+        int index = currentIndex;
+        for (int i = 0; i < sliceCount; i++) {
+            sum += slices[Math.floorMod(index - i, slices.length)].estimate(keyHash);
+        }
+        return (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按时钟轮转时间片
+     * <p>
+     * 每过一个时间片：当前时间片切换到已清空的备用草图，再清空移出窗口的最旧草图作为新的备用；
+     * 轮转线程延迟时一次补齐，最多轮转一整圈
+     */
+    private void rotate() {
+        long epoch = System.currentTimeMillis() / sliceMillis;
+        synchronized (this) {
+            long steps = Math.min(epoch - currentEpoch, slices.length);
+            if (steps <= 0) {
+                return;
+            }
+            int index = currentIndex;
+            for (long i = 0; i < steps; i++) {
+                index = (index + 1) % slices.length;
+                currentIndex = index;
+                int spare = (index + 1) % slices.length;
+                slices[spare].clear();
+                sliceTotals[spare].reset();
+            }
+            currentEpoch = epoch;
+        }
+        // 旧时间片移出窗口后，堆中元素按新的窗口计数重新评分
+        minHeap.rescore(key -> windowCount(KeyHash.hash64(key)), minCount);
+    }
+}
@@ -0,0 +1,278 @@
+package com.aih.highlike.manager.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Space-Saving 算法实现（Stream-Summary 结构）
+ * <p>
+ * 核心特点：
+ * 1. 只监控固定数量（capacity）的计数器，内存与 key 空间无关
+ * 2. 未被监控的 key 到来时，替换计数最小的计数器，并继承其计数作为误差上界
+ * 3. 计数器按计数挂在有序的桶链表上，增量为 1 时更新为 O(1)
+ * <p>
+ * 热点判断使用保证计数（count - error），避免刚替换进来的 key 因继承的计数被误判为热点。
+ */
+public class SpaceSaving implements TopK {
+
+    /**
+     * TopK 的 K 值
+     */
+    private final int k;
+
+    /**
+     * 监控的计数器数量
+     */
+    private final int capacity;
+
+    /**
+     * 最小计数阈值（按保证计数判断）
+     */
+    private final int minCount;
+
+    /**
+     * key -> 计数器
+     */
+    private final Map<String, Counter> counters;
+
+    /**
+     * 计数最小的桶（链表头）
+     */
+    private Bucket minBucket;
+
+    /**
+     * 被挤出的元素队列（有界环形队列）
+     */
+    private final BlockingQueue<Item> expelledQueue;
+
+    /**
+     * 总访问次数
+     */
+    private final LongAdder total;
+
+    /**
+     * 构造函数
+     *
+     * @param k        TopK 的 K 值
+     * @param capacity 监控的计数器数量，应不小于 k，越大越准确
+     * @param minCount 最小计数阈值
+     */
+    public SpaceSaving(int k, int capacity, int minCount) {
+        this.k = k;
+        this.capacity = Math.max(k, capacity);
+        this.minCount = minCount;
+        this.counters = new HashMap<>(this.capacity * 2);
+        this.expelledQueue = new ExpelledRing();
+        this.total = new LongAdder();
+    }
+
+    @Override
+    public AddResult add(String key, int increment) {
+        total.add(increment);
+        synchronized (this) {
+            String expelled = null;
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                if (counters.size() < capacity) {
+                    // 还有空闲计数器
+                    counter = new Counter(key, 0);
+                    attach(counter, findOrCreateBucket(null, 0));
+                } else {
+                    // 替换计数最小的计数器，继承其计数作为误差
+                    counter = minBucket.head;
+                    expelled = counter.key;
+                    counters.remove(expelled);
+                    expelledQueue.offer(new Item(expelled, (int) Math.min(minBucket.count, Integer.MAX_VALUE)));
+                    counter.reset(key, minBucket.count);
+                }
+                counters.put(key, counter);
+            }
+            increment(counter, increment);
+
+            if (counter.count - counter.error < minCount) {
+                return AddResult.COLD;
+            }
+            return expelled == null ? counter.hotResult : new AddResult(expelled, true, key);
+        }
+    }
+
+    @Override
+    public synchronized List<Item> list() {
+        List<Item> result = new ArrayList<>(Math.min(k, counters.size()));
+        // 从最大桶向前遍历
+        Bucket bucket = minBucket;
+        while (bucket != null && bucket.next != null) {
+            bucket = bucket.next;
+        }
+        for (; bucket != null && result.size() < k; bucket = bucket.prev) {
+            for (Counter c = bucket.head; c != null && result.size() < k; c = c.next) {
+                result.add(new Item(c.key, (int) Math.min(c.count, Integer.MAX_VALUE)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public BlockingQueue<Item> expelled() {
+        return expelledQueue;
+    }
+
+    @Override
+    public synchronized void fading() {
+        // 计数与误差减半；减半保持有序，相邻桶计数相同时合并
+        Bucket previous = null;
+        for (Bucket bucket = minBucket; bucket != null; ) {
+            Bucket next = bucket.next;
+            bucket.count >>= 1;
+            for (Counter c = bucket.head; c != null; c = c.next) {
+                c.count = bucket.count;
+                c.error >>= 1;
+            }
+            if (previous != null && previous.count == bucket.count) {
+                while (bucket.head != null) {
+                    Counter c = bucket.head;
+                    detach(c);
+                    attach(c, previous);
+                }
+            } else {
+                previous = bucket;
+            }
+            bucket = next;
+        }
+
+        long current = total.sumThenReset();
+        total.add(current >> 1);
+    }
+
+    @Override
+    public long total() {
+        return total.sum();
+    }
+
+    /**
+     * 增加计数器的计数，并移动到对应的桶
+     */
+    private void increment(Counter counter, int increment) {
+        Bucket from = counter.bucket;
+        long newCount = from.count + increment;
+        detach(counter);
+        // detach 可能移除了空桶，从其前驱开始向后查找
+        Bucket start = from.head == null ? from.prev : from;
+        attach(counter, findOrCreateBucket(start, newCount));
+    }
+
+    /**
+     * 从 start 之后查找计数为 count 的桶，不存在则在合适位置插入
+     *
+     * @param start 查找起点（计数不大于 count），null 表示从链表头开始
+     * @param count 计数
+     * @return 桶
+     */
+    private Bucket findOrCreateBucket(Bucket start, long count) {
+        Bucket prev = start;
+        Bucket next = start == null ? minBucket : start.next;
+        while (next != null && next.count <= count) {
+            prev = next;
+            next = next.next;
+        }
+        if (prev != null && prev.count == count) {
+            return prev;
+        }
+        Bucket bucket = new Bucket(count);
+        bucket.prev = prev;
+        bucket.next = next;
+        if (prev == null) {
+            minBucket = bucket;
+        } else {
+            prev.next = bucket;
+        }
+        if (next != null) {
+            next.prev = bucket;
+        }
+        return bucket;
+    }
+
+    private void attach(Counter counter, Bucket bucket) {
+        counter.bucket = bucket;
+        counter.count = bucket.count;
+        counter.prev = null;
+        counter.next = bucket.head;
+        if (bucket.head != null) {
+            bucket.head.prev = counter;
+        }
+        bucket.head = counter;
+    }
+
+    /**
+     * 将计数器从所在桶移除，桶为空时同时移除桶
+     */
+    private void detach(Counter counter) {
+        Bucket bucket = counter.bucket;
+        if (counter.prev != null) {
+            counter.prev.next = counter.next;
+        } else {
+            bucket.head = counter.next;
+        }
+        if (counter.next != null) {
+            counter.next.prev = counter.prev;
+        }
+        counter.prev = null;
+        counter.next = null;
+
+        if (bucket.head == null) {
+            if (bucket.prev != null) {
+                bucket.prev.next = bucket.next;
+            } else {
+                minBucket = bucket.next;
+            }
+            if (bucket.next != null) {
+                bucket.next.prev = bucket.prev;
+            }
+        }
+    }
+
+    /**
+     * 计数桶，同一桶内的计数器计数相同
+     */
+    private static class Bucket {
+        long count;
+        Bucket prev;
+        Bucket next;
+        Counter head;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * 计数器
+     */
+    private static class Counter {
+        String key;
+        long count;
+        long error;
+        Bucket bucket;
+        Counter prev;
+        Counter next;
+
+        /**
+         * 该计数器复用的热点结果
+         */
+        AddResult hotResult;
+
+        Counter(String key, long error) {
+            reset(key, error);
+        }
+
+        void reset(String key, long error) {
+            this.key = key;
+            this.error = error;
+            this.hotResult = new AddResult(null, true, key);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.aih.highlike.manager.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 分片 TopK 装饰器
+ * <p>
+ * 即使是无锁的 HeavyKeeper，所有核心同时更新同一个爆款博客对应的桶时，
+ * 缓存行仍会在核心之间来回失效。本类的做法：
+ * 1. 持有多个独立的 TopK 分片，线程按线程 ID 固定写入某一个分片，分片之间互不共享
+ * 2. 后台合并线程定期汇总所有分片的 TopK，生成只读的全局快照
+ * 3. add 返回的热点判断只读快照，不触碰其他分片
+ * <p>
+ * 衰减（fading）会作用到每个分片，并立即重新合并快照。
+ * 注意：每个分片都是完整的 TopK，分片的宽度等参数需按分片数缩小以控制总内存。
+ */
+public class StripedTopK implements TopK, AutoCloseable {
+
+    /**
+     * 分片数组
+     */
+    private final TopK[] stripes;
+
+    /**
+     * TopK 的 K 值
+     */
+    private final int k;
+
+    /**
+     * 被挤出全局快照的元素队列
+     */
+    private final BlockingQueue<Item> expelledQueue;
+
+    /**
+     * 后台合并线程
+     */
+    private final ScheduledExecutorService merger;
+
+    /**
+     * 全局 TopK 快照，合并线程整体替换，读取无锁
+     */
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * 构造函数
+     *
+     * @param stripeCount     分片数
+     * @param k               TopK 的 K 值
+     * @param mergeIntervalMs 合并间隔（毫秒）
+     * @param stripeFactory   分片工厂
+     */
+    public StripedTopK(int stripeCount, int k, long mergeIntervalMs, Supplier<TopK> stripeFactory) {
+        this.k = k;
+        this.stripes = new TopK[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = stripeFactory.get();
+        }
+        this.expelledQueue = new ExpelledRing();
+        this.merger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "topk-merger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        merger.scheduleWithFixedDelay(this::merge, mergeIntervalMs, mergeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public AddResult add(String key, int increment) {
+        // 线程固定写入自己的分片
+        int stripe = (int) Math.floorMod(Thread.currentThread().threadId(), (long) stripes.length);
+        stripes[stripe].add(key, increment);
+
+        // 热点判断只看全局快照
+        AddResult hot = snapshot.hotResults.get(key);
+        return hot != null ? hot : AddResult.COLD;
+    }
+
+    /**
+     * 合并所有分片的 TopK，生成新的全局快照
+     * <p>
+     * 同一个 key 在各分片上的计数相加，取前 K 个；
+     * 上一轮快照中存在、本轮被挤出的 key 放入被挤出队列
+     */
+    public synchronized void merge() {
+        Map<String, Integer> merged = new HashMap<>();
+        for (TopK stripe : stripes) {
+            for (Item item : stripe.list()) {
+                merged.merge(item.key(), item.count(), Integer::sum);
+            }
+        }
+
+        List<Item> items = new ArrayList<>(merged.size());
+        merged.forEach((key, count) -> items.add(new Item(key, count)));
+        items.sort((a, b) -> Integer.compare(b.count(), a.count()));
+        List<Item> top = items.size() > k ? new ArrayList<>(items.subList(0, k)) : items;
+
+        Map<String, AddResult> hotResults = new HashMap<>(top.size() * 2);
+        for (Item item : top) {
+            // 沿用上一轮的结果对象，避免每轮合并重新分配
+            AddResult previous = snapshot.hotResults.get(item.key());
+            hotResults.put(item.key(), previous != null ? previous : new AddResult(null, true, item.key()));
+        }
+
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(Collections.unmodifiableList(top), hotResults);
+
+        for (Item item : previous.items) {
+            if (!hotResults.containsKey(item.key())) {
+                expelledQueue.offer(item);
+            }
+        }
+    }
+
+    @Override
+    public List<Item> list() {
+        return snapshot.items;
+    }
+
+    @Override
+    public BlockingQueue<Item> expelled() {
+        return expelledQueue;
+    }
+
+    @Override
+    public void fading() {
+        for (TopK stripe : stripes) {
+            stripe.fading();
+        }
+        merge();
+    }
+
+    @Override
+    public long total() {
+        long total = 0;
+        for (TopK stripe : stripes) {
+            total += stripe.total();
+        }
+        return total;
+    }
+
+    /**
+     * 停止后台合并线程与各分片的后台线程
+     */
+    @Override
+    public void close() throws Exception {
+        merger.shutdownNow();
+        for (TopK stripe : stripes) {
+            if (stripe instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * 全局 TopK 快照
+     *
+     * @param items      按计数降序的 TopK 列表
+     * @param hotResults key -> 复用的热点结果
+     */
+    private record Snapshot(List<Item> items, Map<String, AddResult> hotResults) {
+
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of());
+    }
+}
@@ -0,0 +1,492 @@
+package com.aih.highlike.manager.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.aih.highlike.constant.RedisLuaScript;
+import com.aih.highlike.constant.ThumbConstant;
+import com.aih.highlike.mapper.BlogMapper;
+import com.aih.highlike.model.entity.Blog;
+import com.aih.highlike.util.RedisKeyUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 博客点赞数计数器
+ * <p>
+ * 点赞数以 Redis 计数器为准，数据库 thumbCount 仅作为持久化落地：
+ * 1. 计数器按代轮换：点赞数 = 本代基数（thumb:count:{blogId}:{generation}）+ 本代各增量分片之和
+ * 2. 异步与 MQ 点赞服务在点赞脚本中与点赞记录一起原子更新增量分片（Key 由 {@link #shardFor} 选择），
+ *    同步点赞服务在事务提交后单独更新；热点博客随机写入一个分片，分散到多个 Key
+ * 3. 本代基数不存在时由读取方批量初始化（SET NX）：数据库点赞数加上尚未落库的变化量
+ *    （异步同步的临时记录、MQ 待消费事件），再扣除初始化之前已写入本代增量分片的部分；
+ *    期间有同步任务 / MQ 消费者正在落库时只返回计算结果、不写入基数，由之后的读取重新初始化
+ * 4. 每代的 Key 在本代结束时过期，下一代重新初始化，写入失败等带来的偏差最多持续一代
+ * 5. 热点博客写入随机分片之前先设置本代的分片标记，读取时只有带标记的博客才读取分片 1~7，
+ *    其余博客只读基数与分片 0；热点博客的点赞数另在本地短暂缓存
+ */
+@Slf4j
+@Component
+public class ThumbCountManager {
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private BlogMapper blogMapper;
+
+    @Resource
+    private CacheManager cacheManager;
+
+    /**
+     * 博客ID -> 点赞数，只缓存热点博客
+     */
+    private final Cache<Long, Integer> hotCountCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(ThumbConstant.THUMB_COUNT_SHARD_SUM_CACHE_MILLIS, TimeUnit.MILLISECONDS)
+            .build();
+
+    /**
+     * 本节点已设置过的分片标记 Key，避免热点博客每次写入都重复设置
+     */
+    private final Cache<String, Boolean> shardedMarks = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * 批量获取博客点赞数
+     * <p>
+     * Redis 操作：
+     * 1. MGET thumb:count:{blogId}:{generation} thumb:count:{blogId}:{generation}:0 thumb:count:{blogId}:{generation}:sharded ...
+     *   （每个博客只读基数、分片 0 与分片标记）
+     * 2. MGET thumb:count:{blogId}:{generation}:1 ... :7，只针对带分片标记的博客，没有时省略
+     * <p>
+     * 基数不存在的博客合并为一次 MySQL 查询，再通过管道批量初始化基数
+     *
+     * @param blogIds 博客ID列表
+     * @return 博客ID -> 点赞数，Redis 不可用或博客不存在时不包含该博客
+     */
+    public Map<Long, Integer> multiGet(List<Long> blogIds) {
+        if (CollUtil.isEmpty(blogIds)) {
+            return Map.of();
+        }
+        Map<Long, Integer> countMap = new HashMap<>(blogIds.size() * 2);
+        try {
+            long now = System.currentTimeMillis() / 1000;
+            List<Long> readIds = new ArrayList<>(blogIds.size());
+            List<String> keys = new ArrayList<>(blogIds.size() * 3);
+            for (Long blogId : blogIds) {
+                Integer cached = hotCountCache.getIfPresent(blogId);
+                if (cached != null) {
+                    countMap.put(blogId, cached);
+                    continue;
+                }
+                readIds.add(blogId);
+                long generation = generation(blogId, now);
+                keys.add(RedisKeyUtil.getThumbCountKey(blogId, generation));
+                keys.add(RedisKeyUtil.getThumbCountShardKey(blogId, generation, 0));
+                keys.add(RedisKeyUtil.getThumbCountShardedKey(blogId, generation));
+            }
+            if (readIds.isEmpty()) {
+                return countMap;
+            }
+            List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+            Map<Long, Long> extraShardSums = readShardedSums(readIds, values, now);
+
+            // 基数不存在的博客 -> 本代增量分片之和
+            Map<Long, Long> missShardSums = new HashMap<>();
+            for (int i = 0; i < readIds.size(); i++) {
+                Long blogId = readIds.get(i);
+                long shardSum = toLong(values == null ? null : values.get(i * 3 + 1))
+                        + extraShardSums.getOrDefault(blogId, 0L);
+                Object base = values == null ? null : values.get(i * 3);
+                if (base == null) {
+                    missShardSums.put(blogId, shardSum);
+                    continue;
+                }
+                putCount(countMap, blogId, Long.parseLong(base.toString()) + shardSum);
+            }
+            if (!missShardSums.isEmpty()) {
+                initialize(missShardSums, now).forEach((blogId, count) -> putCount(countMap, blogId, count));
+            }
+        } catch (Exception e) {
+            // 读取失败时返回已获取的部分，调用方回退到博客自身的 thumbCount
+            log.error("点赞数计数器读取失败：{}", blogIds, e);
+        }
+        return countMap;
+    }
+
+    /**
+     * 读取带分片标记的博客的分片 1~7 之和
+     *
+     * @param readIds 本次读取的博客ID，与 values 按每个博客 3 项（基数、分片 0、分片标记）对应
+     * @param values  第一次 MGET 的结果
+     * @param now     当前时间（epoch 秒）
+     * @return 博客ID -> 分片 1~7 之和，不带标记的博客不包含在内
+     */
+    private Map<Long, Long> readShardedSums(List<Long> readIds, List<Object> values, long now) {
+        if (values == null) {
+            return Map.of();
+        }
+        List<Long> shardedIds = new ArrayList<>();
+        List<String> shardKeys = new ArrayList<>();
+        for (int i = 0; i < readIds.size(); i++) {
+            if (values.get(i * 3 + 2) == null) {
+                continue;
+            }
+            Long blogId = readIds.get(i);
+            long generation = generation(blogId, now);
+            shardedIds.add(blogId);
+            for (int shard = 1; shard < ThumbConstant.THUMB_COUNT_SHARDS; shard++) {
+                shardKeys.add(RedisKeyUtil.getThumbCountShardKey(blogId, generation, shard));
+            }
+        }
+        if (shardedIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> shardValues = redisTemplate.opsForValue().multiGet(shardKeys);
+        int stride = ThumbConstant.THUMB_COUNT_SHARDS - 1;
+        Map<Long, Long> shardSums = new HashMap<>(shardedIds.size() * 2);
+        for (int i = 0; i < shardedIds.size(); i++) {
+            long shardSum = 0;
+            for (int shard = 0; shard < stride; shard++) {
+                shardSum += toLong(shardValues == null ? null : shardValues.get(i * stride + shard));
+            }
+            shardSums.put(shardedIds.get(i), shardSum);
+        }
+        return shardSums;
+    }
+
+    private void putCount(Map<Long, Integer> countMap, Long blogId, long count) {
+        int value = (int) Math.max(count, 0);
+        countMap.put(blogId, value);
+        if (cacheManager.isHotKey(blogId.toString())) {
+            hotCountCache.put(blogId, value);
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+
+    /**
+     * 选择本次写入的增量分片
+     * <p>
+     * 热点博客随机选择一个分片，其余博客只写分片 0；
+     * 写入分片 1~7 之前先设置本代的分片标记，标记设置失败时退回分片 0，保证读取方不会漏读
+     *
+     * @param blogId 博客ID
+     * @return 增量分片 Key 与过期时间点，作为点赞脚本的 KEYS / ARGV
+     */
+    public CounterShard shardFor(Long blogId) {
+        long now = System.currentTimeMillis() / 1000;
+        long generation = generation(blogId, now);
+        long expireAt = expireAt(blogId, generation);
+        int shard = cacheManager.isHotKey(blogId.toString())
+                ? ThreadLocalRandom.current().nextInt(ThumbConstant.THUMB_COUNT_SHARDS)
+                : 0;
+        if (shard != 0 && !markSharded(blogId, generation, expireAt - now)) {
+            shard = 0;
+        }
+        return new CounterShard(RedisKeyUtil.getThumbCountShardKey(blogId, generation, shard), expireAt);
+    }
+
+    /**
+     * 设置本代的分片标记
+     * <p>
+     * Redis 操作：SET thumb:count:{blogId}:{generation}:sharded 1 EX {seconds}，本节点设置过的标记不再重复设置
+     *
+     * @param blogId     博客ID
+     * @param generation 代数
+     * @param ttlSeconds 标记保留时间（秒），与本代计数器同时过期
+     * @return 标记是否已存在或设置成功
+     */
+    private boolean markSharded(Long blogId, long generation, long ttlSeconds) {
+        String shardedKey = RedisKeyUtil.getThumbCountShardedKey(blogId, generation);
+        if (shardedMarks.getIfPresent(shardedKey) != null) {
+            return true;
+        }
+        try {
+            redisTemplate.opsForValue().set(shardedKey, 1, ttlSeconds, TimeUnit.SECONDS);
+            shardedMarks.put(shardedKey, Boolean.TRUE);
+            return true;
+        } catch (Exception e) {
+            log.error("点赞数计数器分片标记设置失败：blogId={}", blogId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 增减博客点赞数
+     * <p>
+     * 供点赞记录直接写数据库的同步点赞服务使用，在事务中调用时，提交之后再更新，避免回滚后计数器与数据库不一致
+     *
+     * @param blogId 博客ID
+     * @param delta  变化量
+     */
+    public void increment(Long blogId, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doIncrement(blogId, delta);
+                }
+            });
+        } else {
+            doIncrement(blogId, delta);
+        }
+    }
+
+    /**
+     * 写入本代的一个增量分片
+     * <p>
+     * Redis 操作：INCRBY thumb:count:{blogId}:{generation}:{shard} {delta} + EXPIREAT（单 Key 脚本）
+     */
+    private void doIncrement(Long blogId, long delta) {
+        try {
+            CounterShard counterShard = shardFor(blogId);
+            redisTemplate.execute(
+                    RedisLuaScript.THUMB_COUNT_INCR_SCRIPT,
+                    List.of(counterShard.key()),
+                    delta,
+                    counterShard.expireAt()
+            );
+        } catch (Exception e) {
+            // 更新失败不影响业务，偏差最多持续到本代结束
+            log.error("点赞数计数器更新失败：blogId={}, delta={}", blogId, delta, e);
+        }
+    }
+
+    /**
+     * 初始化本代基数
+     * <p>
+     * SQL: SELECT id, thumbCount FROM blog WHERE id IN (...)
+     * <p>
+     * Redis 操作：SET thumb:count:{blogId}:{generation} {基数} EX {seconds} NX，管道一次往返
+     * <p>
+     * 基数 = 数据库点赞数 + 尚未落库的变化量 - 初始化之前已写入本代增量分片的部分，
+     * 数据库落后于 Redis 的部分不会在整代内缺失，已写入增量分片的部分也不会被重复计算。
+     * <p>
+     * 同步任务 / MQ 消费者先写数据库、后扣减待同步变化量，两步之间读取会把同一批操作计算两次。
+     * 读取数据库前后各检查一次结算状态，读取前有进行中的结算或期间开始过结算时不写入基数
+     *
+     * @param shardSums 博客ID -> 已读取的本代增量分片之和
+     * @param now       当前时间（epoch 秒）
+     * @return 博客ID -> 点赞数
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> initialize(Map<Long, Long> shardSums, long now) {
+        List<Long> before = settleState();
+        List<Blog> blogs = blogMapper.selectList(Wrappers.lambdaQuery(Blog.class)
+                .select(Blog::getId, Blog::getThumbCount)
+                .in(Blog::getId, shardSums.keySet()));
+        Map<Long, Long> countMap = new HashMap<>(blogs.size() * 2);
+        for (Blog blog : blogs) {
+            countMap.put(blog.getId(), blog.getThumbCount() == null ? 0L : blog.getThumbCount());
+        }
+        if (countMap.isEmpty()) {
+            return countMap;
+        }
+        pendingDeltas(countMap.keySet(), now).forEach((blogId, delta) -> countMap.merge(blogId, delta, Long::sum));
+        List<Long> after = settleState();
+        if (before.get(1) != 0 || !before.get(0).equals(after.get(0))) {
+            log.debug("初始化点赞数计数器时有进行中的结算，本次不写入基数：{}", countMap.keySet());
+            return countMap;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                countMap.forEach((blogId, count) -> {
+                    long generation = generation(blogId, now);
+                    long base = count - shardSums.get(blogId);
+                    redisOperations.opsForValue().setIfAbsent(RedisKeyUtil.getThumbCountKey(blogId, generation),
+                            base, expireAt(blogId, generation) - now, TimeUnit.SECONDS);
+                });
+                return null;
+            }
+        });
+        return countMap;
+    }
+
+    /**
+     * 查询尚未落库的点赞数变化量
+     * <p>
+     * Redis 操作：
+     * 1. ZRANGEBYSCORE thumb:mq:pending:slices {未过期的最小时间片ID} +inf
+     * 2. HMGET thumb:pending:count {blogId...} + HMGET thumb:mq:count:{sliceId} {blogId...}，管道一次往返
+     * <p>
+     * 读取量有上界：异步同步的变化量按博客累加在一个 Hash 中，只需一次 HMGET，与积压的时间片数量无关；
+     * MQ 待消费变化量按时间片保存以便过期，最多
+     * {@link ThumbConstant#MQ_PENDING_THUMB_EXPIRE_SECONDS} / {@link ThumbConstant#THUMB_SLICE_SECONDS}（60）个时间片
+     *
+     * @param blogIds 博客ID集合
+     * @param now     当前时间（epoch 秒）
+     * @return 博客ID -> 变化量，没有变化量的博客不包含在内
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> pendingDeltas(Collection<Long> blogIds, long now) {
+        List<String> countKeys = new ArrayList<>();
+        countKeys.add(ThumbConstant.PENDING_THUMB_COUNT_KEY);
+        // 变化量 Key 已过期的 MQ 时间片顺带移出索引
+        long mqMinSliceId = now - ThumbConstant.MQ_PENDING_THUMB_EXPIRE_SECONDS - ThumbConstant.THUMB_SLICE_SECONDS;
+        redisTemplate.opsForZSet().removeRangeByScore(ThumbConstant.MQ_PENDING_THUMB_SLICES_KEY, 0, mqMinSliceId - 1);
+        Set<Object> mqSlices = redisTemplate.opsForZSet().rangeByScore(ThumbConstant.MQ_PENDING_THUMB_SLICES_KEY,
+                mqMinSliceId, Double.POSITIVE_INFINITY);
+        if (mqSlices != null) {
+            mqSlices.forEach(slice -> countKeys.add(
+                    RedisKeyUtil.getMqPendingThumbCountKey(Long.parseLong(slice.toString()))));
+        }
+
+        List<Long> blogIdList = new ArrayList<>(blogIds);
+        List<Object> fields = blogIdList.stream().map(blogId -> (Object) blogId.toString()).toList();
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                countKeys.forEach(countKey -> redisOperations.opsForHash().multiGet(countKey, fields));
+                return null;
+            }
+        });
+        Map<Long, Long> deltaMap = new HashMap<>();
+        for (Object result : results) {
+            List<Object> values = (List<Object>) result;
+            for (int i = 0; i < blogIdList.size(); i++) {
+                long delta = toLong(values == null ? null : values.get(i));
+                if (delta != 0) {
+                    deltaMap.merge(blogIdList.get(i), delta, Long::sum);
+                }
+            }
+        }
+        return deltaMap;
+    }
+
+    /**
+     * 登记一次待同步变化量结算，需在写入数据库之前调用，扣减变化量之后调用 {@link #endSettle}
+     * <p>
+     * Redis 操作：ZADD thumb:pending:settling {租期截止时间} {token} + INCR thumb:pending:settle:seq（Lua 脚本）
+     *
+     * @return 结算令牌
+     */
+    public long beginSettle() {
+        long token = IdUtil.getSnowflakeNextId();
+        redisTemplate.execute(RedisLuaScript.PENDING_SETTLE_BEGIN_SCRIPT,
+                List.of(ThumbConstant.PENDING_SETTLING_KEY, ThumbConstant.PENDING_SETTLE_SEQ_KEY),
+                token, ThumbConstant.PENDING_SETTLE_LEASE_MILLIS);
+        return token;
+    }
+
+    /**
+     * 注销待同步变化量结算
+     * <p>
+     * Redis 操作：ZREM thumb:pending:settling {token}；失败时登记在租期截止后失效
+     *
+     * @param token 结算令牌
+     */
+    public void endSettle(long token) {
+        try {
+            redisTemplate.opsForZSet().remove(ThumbConstant.PENDING_SETTLING_KEY, token);
+        } catch (Exception e) {
+            log.error("注销待同步变化量结算失败：token={}", token, e);
+        }
+    }
+
+    /**
+     * 读取结算状态
+     *
+     * @return [结算序号, 进行中的结算数量]
+     */
+    private List<Long> settleState() {
+        List<?> state = redisTemplate.execute(RedisLuaScript.PENDING_SETTLE_STATE_SCRIPT,
+                List.of(ThumbConstant.PENDING_SETTLING_KEY, ThumbConstant.PENDING_SETTLE_SEQ_KEY));
+        if (state == null || state.size() < 2) {
+            // 读取失败时视为有进行中的结算，不写入基数
+            return List.of(-1L, 1L);
+        }
+        return List.of(((Number) state.get(0)).longValue(), ((Number) state.get(1)).longValue());
+    }
+
+    /**
+     * 扣减已被消费者写入数据库的 MQ 待消费点赞数变化量
+     * <p>
+     * Redis 操作：HINCRBY thumb:mq:count:{sliceId} {blogId} {-delta}，归零的 Field 删除，时间片为空时移出索引（Lua 脚本）
+     *
+     * @param sliceId    事件发送时所在的时间片ID
+     * @param blogDeltas 博客ID -> 已写入数据库的变化量
+     */
+    public void settleMqPending(long sliceId, Map<Long, Long> blogDeltas) {
+        if (blogDeltas.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(1 + blogDeltas.size() * 2);
+        args.add(sliceId);
+        blogDeltas.forEach((blogId, delta) -> {
+            args.add(blogId);
+            args.add(delta);
+        });
+        try {
+            redisTemplate.execute(RedisLuaScript.MQ_PENDING_COUNT_SETTLE_SCRIPT,
+                    List.of(RedisKeyUtil.getMqPendingThumbCountKey(sliceId), ThumbConstant.MQ_PENDING_THUMB_SLICES_KEY),
+                    args.toArray());
+        } catch (Exception e) {
+            // 扣减失败时偏差最多持续到待消费变化量过期
+            log.error("MQ 待消费点赞数扣减失败：sliceId={}, {}", sliceId, blogDeltas, e);
+        }
+    }
+
+    /**
+     * 计算博客计数器的当前代数
+     * <p>
+     * 每个博客按ID错开换代时间，避免所有计数器同时过期、同时查询数据库
+     *
+     * @param blogId 博客ID
+     * @param now    当前时间（epoch 秒）
+     * @return 代数
+     */
+    static long generation(Long blogId, long now) {
+        return (now + offset(blogId)) / ThumbConstant.THUMB_COUNT_GENERATION_SECONDS;
+    }
+
+    /**
+     * 计算本代 Key 的过期时间点
+     *
+     * @param blogId     博客ID
+     * @param generation 代数
+     * @return 过期时间点（epoch 秒）
+     */
+    static long expireAt(Long blogId, long generation) {
+        return (generation + 1) * ThumbConstant.THUMB_COUNT_GENERATION_SECONDS - offset(blogId)
+                + ThumbConstant.THUMB_COUNT_EXPIRE_GRACE_SECONDS;
+    }
+
+    private static long offset(Long blogId) {
+        return Math.floorMod(blogId, ThumbConstant.THUMB_COUNT_GENERATION_SECONDS);
+    }
+
+    /**
+     * 点赞数增量分片
+     *
+     * @param key      增量分片 Key（thumb:count:{blogId}:{generation}:{shard}）
+     * @param expireAt 过期时间点（epoch 秒，本代结束时）
+     */
+    public record CounterShard(String key, long expireAt) {
+    }
+}
@@ -26,6 +26,8 @@ public interface TopK {
     
     /**
      * 获取被挤出的元素队列
+     * <p>
+     * 队列有界，满时丢弃最旧的元素
      *
      * @return 被挤出的元素队列
      */
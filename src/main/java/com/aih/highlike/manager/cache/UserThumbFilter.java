@@ -0,0 +1,129 @@
+package com.aih.highlike.manager.cache;
+
+import com.aih.highlike.constant.ThumbConstant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户点赞过滤器
+ * <p>
+ * 用户只给浏览过的极少数博客点过赞，绝大多数 hasThumb 查询的结果都是"未点赞"。
+ * 本类为每个用户维护一个布隆过滤器：
+ * 1. syncUserThumbsToRedis 时按数据库中的点赞记录构建
+ * 2. 点赞时加入当前节点的过滤器，并经失效广播加入其他节点的过滤器
+ * 3. 过滤器判定"一定未点赞"时直接返回，"可能已点赞"时继续查询本地缓存 / Redis
+ * <p>
+ * 布隆过滤器不支持删除，取消点赞后对应博客保持"可能已点赞"，只会多一次查询，不会误判。
+ * 广播丢失可能让其他节点把新点赞误判为未点赞，因此过滤器写入后一段时间过期，过期后回退到查询 Redis。
+ */
+@Slf4j
+@Component
+public class UserThumbFilter {
+
+    /**
+     * 期望误判率
+     */
+    private static final double FPP = 0.01;
+
+    /**
+     * 过滤器的最小容量，为构建后新增的点赞预留空间
+     */
+    private static final int MIN_EXPECTED_INSERTIONS = 64;
+
+    @Resource
+    private LocalCacheInvalidationBus localCacheInvalidationBus;
+
+    /**
+     * userId -> 布隆过滤器
+     */
+    private final Cache<Long, BloomFilter> filters = Caffeine.newBuilder()
+            .maximumSize(100_000)                       // 最多保存 10 万个用户的过滤器
+            .expireAfterWrite(30, TimeUnit.MINUTES)     // 构建后 30 分钟过期
+            .build();
+
+    /**
+     * 订阅其他节点的点赞广播
+     */
+    @PostConstruct
+    public void subscribe() {
+        localCacheInvalidationBus.onInvalidate(this::onRemoteChange);
+    }
+
+    /**
+     * 按用户的全部点赞记录构建过滤器
+     *
+     * @param userId  用户ID
+     * @param blogIds 已点赞的博客ID
+     */
+    public void build(Long userId, Collection<String> blogIds) {
+        // 容量取已有点赞数的 2 倍，构建后继续点赞时误判率不会很快上升
+        BloomFilter filter = new BloomFilter(Math.max(MIN_EXPECTED_INSERTIONS, blogIds.size() * 2), FPP);
+        for (String blogId : blogIds) {
+            filter.put(blogId);
+        }
+        filters.put(userId, filter);
+        log.debug("用户 {} 的点赞过滤器已构建，点赞数：{}", userId, blogIds.size());
+    }
+
+    /**
+     * 记录一次点赞
+     *
+     * @param userId 用户ID
+     * @param blogId 博客ID
+     */
+    public void add(Long userId, String blogId) {
+        BloomFilter filter = filters.getIfPresent(userId);
+        if (filter != null) {
+            filter.put(blogId);
+        }
+    }
+
+    /**
+     * 判断用户是否一定没有点赞该博客
+     *
+     * @param userId 用户ID
+     * @param blogId 博客ID
+     * @return true 表示一定未点赞；false 表示可能已点赞或没有该用户的过滤器，需要继续查询
+     */
+    public boolean definitelyNotThumbed(Long userId, String blogId) {
+        BloomFilter filter = filters.getIfPresent(userId);
+        return filter != null && !filter.mightContain(blogId);
+    }
+
+    /**
+     * 移除用户的过滤器
+     *
+     * @param userId 用户ID
+     */
+    public void remove(Long userId) {
+        filters.invalidate(userId);
+    }
+
+    /**
+     * 处理其他节点的变更广播
+     * <p>
+     * 复合 Key 格式：thumb:user:{userId}:{blogId}；广播不区分点赞与取消，一律加入过滤器，取消只会多一次查询
+     */
+    private void onRemoteChange(String compositeKey) {
+        if (!compositeKey.startsWith(ThumbConstant.USER_THUMB_KEY_PREFIX)) {
+            return;
+        }
+        int separatorIndex = compositeKey.lastIndexOf(':');
+        if (separatorIndex <= ThumbConstant.USER_THUMB_KEY_PREFIX.length()) {
+            return;
+        }
+        try {
+            Long userId = Long.valueOf(compositeKey.substring(ThumbConstant.USER_THUMB_KEY_PREFIX.length(), separatorIndex));
+            add(userId, compositeKey.substring(separatorIndex + 1));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析点赞广播：{}", compositeKey);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.aih.highlike.manager.lock;
+
+import com.aih.highlike.config.ThumbProperties;
+import com.aih.highlike.exception.BusinessException;
+import com.aih.highlike.exception.ErrorCode;
+import com.aih.highlike.manager.cache.KeyHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 分段锁管理器
+ * <p>
+ * 按 Key 的哈希把请求映射到固定数量的 {@link ReentrantLock} 上：
+ * 1. 锁数量固定（thumb.lock-stripes），内存占用与用户数无关（替代 String.intern() 作为锁对象）
+ * 2. 使用 ReentrantLock 而非 synchronized，虚拟线程等待锁时不会钉住载体线程
+ * 3. 等待超过超时时间（thumb.lock-timeout-ms）直接失败，避免请求在锁上无限堆积
+ * 4. 记录锁等待耗时与超时次数
+ * <p>
+ * 不同 Key 可能映射到同一段，只会增加少量竞争，不影响正确性
+ */
+@Slf4j
+@Component
+public class StripedLockManager {
+
+    @Resource
+    private ThumbProperties thumbProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private ReentrantLock[] locks;
+
+    /**
+     * 锁段数 - 1，锁段数为 2 的幂
+     */
+    private int stripeMask;
+
+    /**
+     * 获取锁的最长等待时间（毫秒）
+     */
+    private long waitTimeoutMillis;
+
+    /**
+     * 锁等待耗时
+     */
+    private Timer waitTimer;
+
+    /**
+     * 锁等待超时次数
+     */
+    private Counter timeoutCounter;
+
+    /**
+     * 按配置创建锁段（锁段数向上取整为 2 的幂），并注册指标
+     */
+    @PostConstruct
+    public void init() {
+        int stripes = Math.max(1, thumbProperties.getLockStripes());
+        stripes = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        stripeMask = stripes - 1;
+        waitTimeoutMillis = thumbProperties.getLockTimeoutMs();
+        registerMetrics();
+    }
+
+    private void registerMetrics() {
+        waitTimer = Timer.builder("striped.lock.wait")
+                .description("分段锁等待耗时")
+                .register(meterRegistry);
+        timeoutCounter = Counter.builder("striped.lock.timeout")
+                .description("分段锁等待超时次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 持有 Key 对应的锁执行操作
+     *
+     * @param key    锁 Key（如用户ID）
+     * @param action 操作
+     * @return 操作结果
+     * @throws BusinessException 等待锁超时或被中断
+     */
+    public <T> T executeWithLock(long key, Supplier<T> action) {
+        ReentrantLock lock = locks[stripe(key)];
+        long start = System.nanoTime();
+        boolean locked;
+        try {
+            locked = lock.tryLock(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作被中断");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!locked) {
+            timeoutCounter.increment();
+            log.warn("获取分段锁超时：key={}", key);
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "操作过于频繁，请稍后重试");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 计算 Key 所在的锁段
+     * <p>
+     * 先打散再取低位，避免连续的用户ID集中在相邻的锁段
+     */
+    private int stripe(long key) {
+        return (int) KeyHash.mix64(key) & stripeMask;
+    }
+}
@@ -0,0 +1,413 @@
+package com.aih.highlike.manager.thumb;
+
+import com.aih.highlike.config.ThumbProperties;
+import com.aih.highlike.constant.ThumbConstant;
+import com.aih.highlike.exception.BusinessException;
+import com.aih.highlike.exception.ErrorCode;
+import com.aih.highlike.manager.cache.CacheManager;
+import com.aih.highlike.manager.cache.ThumbCountManager;
+import com.aih.highlike.manager.cache.UserThumbFilter;
+import com.aih.highlike.mapper.BlogMapper;
+import com.aih.highlike.mapper.ThumbMapper;
+import com.aih.highlike.model.entity.Blog;
+import com.aih.highlike.model.entity.Thumb;
+import com.aih.highlike.model.enums.ThumbOperationType;
+import com.aih.highlike.util.RedisKeyUtil;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * 点赞组提交器
+ * <p>
+ * 同步点赞服务的组提交模式：并发的点赞 / 取消点赞请求进入队列，提交线程每攒满一批或等待数毫秒后：
+ * 1. 校验博客和点赞记录是否存在，不存在的请求直接失败
+ * 2. 在一个事务中执行一条多行 INSERT、一条批量 DELETE 和一次聚合的 batchUpdateThumbCount，
+ *    整批失败时逐个请求单独重试，只让出错的请求失败
+ * 3. 提交后批量写入 Redis 点赞记录、更新本地缓存与点赞数计数器，再完成各调用方的 Future
+ * <p>
+ * 调用方仍同步等待提交结果，但每次提交（一次 fsync）由整批请求分摊。
+ * Redis 与缓存的更新由提交线程完成，调用方等待超时不会导致提交结果丢失
+ */
+@Slf4j
+@Component
+public class ThumbGroupCommitter {
+
+    @Resource
+    private ThumbProperties thumbProperties;
+
+    @Resource
+    private ThumbMapper thumbMapper;
+
+    @Resource
+    private BlogMapper blogMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private CacheManager cacheManager;
+
+    @Resource
+    private UserThumbFilter userThumbFilter;
+
+    @Resource
+    private ThumbCountManager thumbCountManager;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final LinkedBlockingQueue<ThumbCommand> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+
+    /**
+     * 提交线程，未开启组提交时为 null
+     */
+    private Thread committer;
+
+    /**
+     * 每批提交的请求数
+     */
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    public void start() {
+        if (!thumbProperties.isGroupCommitEnabled()) {
+            return;
+        }
+        batchSizeSummary = DistributionSummary.builder("thumb.group.commit.batch.size")
+                .description("点赞组提交每批请求数")
+                .register(meterRegistry);
+        running = true;
+        committer = Thread.ofPlatform()
+                .name("thumb-group-committer")
+                .daemon(true)
+                .start(this::runLoop);
+        log.info("点赞组提交已开启，单批最大 {} 个请求，攒批时间 {} 毫秒",
+                thumbProperties.getGroupCommitMaxBatch(), thumbProperties.getGroupCommitIntervalMs());
+    }
+
+    /**
+     * 停止提交线程，队列中剩余的请求提交完成后退出
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        running = false;
+        committer.join(thumbProperties.getGroupCommitTimeoutMs());
+    }
+
+    /**
+     * 是否开启组提交
+     */
+    public boolean isEnabled() {
+        return committer != null;
+    }
+
+    /**
+     * 提交点赞并等待结果
+     *
+     * @param userId 用户ID
+     * @param blogId 博客ID
+     * @return 点赞记录ID
+     */
+    public Long thumb(Long userId, Long blogId) {
+        return submit(new ThumbCommand(userId, blogId, ThumbOperationType.THUMB, IdWorker.getId()));
+    }
+
+    /**
+     * 提交取消点赞并等待结果
+     *
+     * @param userId  用户ID
+     * @param blogId  博客ID
+     * @param thumbId 点赞记录ID
+     */
+    public void cancel(Long userId, Long blogId, Long thumbId) {
+        submit(new ThumbCommand(userId, blogId, ThumbOperationType.CANCEL, thumbId));
+    }
+
+    private Long submit(ThumbCommand command) {
+        if (!running) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "服务正在停止");
+        }
+        queue.add(command);
+        try {
+            return command.future().get(thumbProperties.getGroupCommitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作被中断");
+        } catch (TimeoutException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "操作超时，请稍后查看结果");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+        }
+    }
+
+    /**
+     * 提交线程主循环
+     * <p>
+     * 取到第一个请求后继续攒批，直到攒满或到达攒批时间
+     */
+    private void runLoop() {
+        int maxBatch = thumbProperties.getGroupCommitMaxBatch();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(thumbProperties.getGroupCommitIntervalMs());
+        while (running || !queue.isEmpty()) {
+            try {
+                ThumbCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<ThumbCommand> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < maxBatch) {
+                    ThumbCommand next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("点赞组提交线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 提交一批请求
+     * <p>
+     * 整批在一个事务中提交；整批失败时（如某一行违反唯一索引）逐个请求单独重试，
+     * 只有出错的请求失败，其余请求照常生效
+     */
+    private void commit(List<ThumbCommand> batch) {
+        batchSizeSummary.record(batch.size());
+        List<ThumbCommand> valid = filterExisting(deduplicate(batch));
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<Long, Long> countMap = write(valid);
+            afterCommit(valid, countMap);
+            valid.forEach(command -> command.future().complete(command.thumbId()));
+            return;
+        } catch (Exception e) {
+            log.warn("点赞组提交失败，逐个重试，请求数：{}", valid.size(), e);
+        }
+
+        for (ThumbCommand command : valid) {
+            List<ThumbCommand> single = List.of(command);
+            Map<Long, Long> countMap;
+            try {
+                countMap = write(single);
+            } catch (Exception e) {
+                log.error("点赞提交失败：userId={}, blogId={}, type={}",
+                        command.userId(), command.blogId(), command.type(), e);
+                command.future().completeExceptionally(
+                        new BusinessException(ErrorCode.OPERATION_ERROR, command.failureMessage()));
+                continue;
+            }
+            afterCommit(single, countMap);
+            command.future().complete(command.thumbId());
+        }
+    }
+
+    /**
+     * 同一批内同一用户对同一博客只保留第一个请求
+     * <p>
+     * 调用方等待超时后会释放用户锁，已排队的请求仍会提交，同一用户的重试可能与之进入同一批；
+     * 后到的请求直接失败，不与先到的请求在一个事务中冲突
+     *
+     * @return 去重后的请求
+     */
+    private List<ThumbCommand> deduplicate(List<ThumbCommand> batch) {
+        Set<String> userBlogIds = new HashSet<>(batch.size() * 2);
+        List<ThumbCommand> unique = new ArrayList<>(batch.size());
+        for (ThumbCommand command : batch) {
+            if (userBlogIds.add(command.userId() + ":" + command.blogId())) {
+                unique.add(command);
+            } else {
+                log.warn("同一批内重复的点赞请求：userId={}, blogId={}, type={}",
+                        command.userId(), command.blogId(), command.type());
+                command.future().completeExceptionally(
+                        new BusinessException(ErrorCode.OPERATION_ERROR, command.failureMessage()));
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * 在一个事务中写入一组请求
+     * <p>
+     * SQL: INSERT INTO thumb ... VALUES (...), (...) + DELETE FROM thumb WHERE id IN (...) + batchUpdateThumbCount
+     *
+     * @return 博客ID -> 点赞数变化量
+     */
+    private Map<Long, Long> write(List<ThumbCommand> commands) {
+        List<Thumb> thumbsToInsert = new ArrayList<>();
+        List<Long> thumbIdsToDelete = new ArrayList<>();
+        Map<Long, Long> countMap = new HashMap<>();
+        for (ThumbCommand command : commands) {
+            if (command.type() == ThumbOperationType.THUMB) {
+                Thumb thumb = new Thumb();
+                thumb.setId(command.thumbId());
+                thumb.setUserId(command.userId());
+                thumb.setBlogId(command.blogId());
+                thumbsToInsert.add(thumb);
+            } else {
+                thumbIdsToDelete.add(command.thumbId());
+            }
+            countMap.merge(command.blogId(), (long) command.type().getValue(), Long::sum);
+        }
+        countMap.values().removeIf(delta -> delta == 0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!thumbsToInsert.isEmpty()) {
+                thumbMapper.insertBatch(thumbsToInsert);
+            }
+            if (!thumbIdsToDelete.isEmpty()) {
+                thumbMapper.deleteBatchIds(thumbIdsToDelete);
+            }
+            if (!countMap.isEmpty()) {
+                blogMapper.batchUpdateThumbCount(countMap);
+            }
+        });
+        return countMap;
+    }
+
+    /**
+     * 校验博客和待删除的点赞记录是否存在
+     * <p>
+     * SQL: SELECT id FROM blog WHERE id IN (...)
+     * SQL: SELECT id FROM thumb WHERE id IN (...)
+     *
+     * @return 可以提交的请求
+     */
+    private List<ThumbCommand> filterExisting(List<ThumbCommand> batch) {
+        Set<Long> blogIds = batch.stream().map(ThumbCommand::blogId).collect(Collectors.toSet());
+        Set<Long> existingBlogIds = blogMapper.selectList(Wrappers.lambdaQuery(Blog.class)
+                        .select(Blog::getId)
+                        .in(Blog::getId, blogIds))
+                .stream().map(Blog::getId).collect(Collectors.toSet());
+        List<Long> cancelThumbIds = batch.stream()
+                .filter(command -> command.type() == ThumbOperationType.CANCEL)
+                .map(ThumbCommand::thumbId)
+                .toList();
+        Set<Long> existingThumbIds = cancelThumbIds.isEmpty() ? Set.of()
+                : thumbMapper.selectList(Wrappers.lambdaQuery(Thumb.class)
+                        .select(Thumb::getId)
+                        .in(Thumb::getId, cancelThumbIds))
+                .stream().map(Thumb::getId).collect(Collectors.toSet());
+
+        List<ThumbCommand> valid = new ArrayList<>(batch.size());
+        for (ThumbCommand command : batch) {
+            boolean exists = existingBlogIds.contains(command.blogId())
+                    && (command.type() == ThumbOperationType.THUMB || existingThumbIds.contains(command.thumbId()));
+            if (exists) {
+                valid.add(command);
+            } else {
+                command.future().completeExceptionally(
+                        new BusinessException(ErrorCode.OPERATION_ERROR, command.failureMessage()));
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * 提交后更新 Redis 点赞记录、本地缓存、点赞过滤器和点赞数计数器
+     * <p>
+     * Redis 操作：HSET / HDEL thumb:user:{userId} {blogId}，管道一次往返
+     */
+    @SuppressWarnings("unchecked")
+    private void afterCommit(List<ThumbCommand> commands, Map<Long, Long> countMap) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                    for (ThumbCommand command : commands) {
+                        String userThumbKey = RedisKeyUtil.getUserThumbKey(command.userId());
+                        if (command.type() == ThumbOperationType.THUMB) {
+                            redisOperations.opsForHash().put(userThumbKey, command.blogId().toString(), command.thumbId());
+                        } else {
+                            redisOperations.opsForHash().delete(userThumbKey, command.blogId().toString());
+                        }
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // 数据库已提交，Redis 写入失败时由用户登录时的同步重建
+            log.error("点赞组提交后写入 Redis 失败，请求数：{}", commands.size(), e);
+        }
+
+        for (ThumbCommand command : commands) {
+            String userThumbKey = RedisKeyUtil.getUserThumbKey(command.userId());
+            String field = command.blogId().toString();
+            if (command.type() == ThumbOperationType.THUMB) {
+                cacheManager.putIfPresent(userThumbKey, field, command.thumbId());
+                userThumbFilter.add(command.userId(), field);
+            } else {
+                cacheManager.putIfPresent(userThumbKey, field, ThumbConstant.UN_THUMB_CONSTANT);
+            }
+        }
+        countMap.forEach(thumbCountManager::increment);
+    }
+
+    /**
+     * 点赞 / 取消点赞请求
+     *
+     * @param userId  用户ID
+     * @param blogId  博客ID
+     * @param type    操作类型
+     * @param thumbId 点赞记录ID（点赞时预先分配）
+     * @param future  提交结果，完成值为点赞记录ID
+     */
+    private record ThumbCommand(Long userId, Long blogId, ThumbOperationType type, Long thumbId,
+                                CompletableFuture<Long> future) {
+
+        ThumbCommand(Long userId, Long blogId, ThumbOperationType type, Long thumbId) {
+            this(userId, blogId, type, thumbId, new CompletableFuture<>());
+        }
+
+        String failureMessage() {
+            return type == ThumbOperationType.THUMB ? "点赞失败" : "取消点赞失败";
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.aih.highlike.manager.thumb;
+
+import com.aih.highlike.constant.ThumbConstant;
+import com.aih.highlike.exception.BusinessException;
+import com.aih.highlike.exception.ErrorCode;
+import jakarta.annotation.Resource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 点赞时间片时钟
+ * <p>
+ * 按 Redis 服务器时间计算时间片，各节点本机时钟不一致时也写入同一时间片；
+ * 点赞服务选择写入的时间片与同步任务判断时间片是否结束使用同一时钟。
+ * <p>
+ * 调用方先取时间片再执行脚本，跨过时间片边界的写入可能落在同步任务已开始处理的时间片，
+ * 同步任务只在时间片的临时记录全部删除后才将其移出待同步索引，这部分写入由下一次同步处理
+ */
+@Component
+public class ThumbSliceClock {
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 按 Redis 服务器时间计算当前时间片ID
+     * <p>
+     * Redis 操作：TIME
+     *
+     * @return 当前时间片ID（epoch 秒，按10秒取整）
+     */
+    public long currentSliceId() {
+        Long epochSecond = redisTemplate.execute(
+                (RedisCallback<Long>) connection -> connection.serverCommands().time(TimeUnit.SECONDS));
+        if (epochSecond == null) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "获取 Redis 服务器时间失败");
+        }
+        return epochSecond - epochSecond % ThumbConstant.THUMB_SLICE_SECONDS;
+    }
+}
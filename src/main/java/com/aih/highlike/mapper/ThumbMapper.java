@@ -2,9 +2,28 @@ package com.aih.highlike.mapper;
 
 import com.aih.highlike.model.entity.Thumb;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 点赞记录数据访问层
  */
 public interface ThumbMapper extends BaseMapper<Thumb> {
+
+    /**
+     * 批量插入点赞记录
+     * <p>
+     * 一条多行 INSERT 语句写入全部记录，记录ID需预先分配
+     * <p>
+     * SQL 示例：
+     * <pre>
+     * INSERT INTO thumb (id, userId, blogId)
+     * VALUES (1, 1001, 1), (2, 1002, 1), (3, 1001, 2)
+     * </pre>
+     *
+     * @param thumbs 点赞记录列表
+     * @return 插入行数
+     */
+    int insertBatch(@Param("thumbs") List<Thumb> thumbs);
 }
@@ -0,0 +1,26 @@
+package com.aih.highlike.model.dto.thumb;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量点赞请求项
+ */
+@Data
+public class ThumbBatchItem implements Serializable {
+
+    /**
+     * 博客ID
+     */
+    private Long blogId;
+
+    /**
+     * 操作类型：1=点赞，-1=取消点赞
+     *
+     * @see com.aih.highlike.model.enums.ThumbOperationType
+     */
+    private Integer type;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,20 @@
+package com.aih.highlike.model.dto.thumb;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量点赞请求
+ */
+@Data
+public class ThumbBatchRequest implements Serializable {
+
+    /**
+     * 点赞操作列表，按顺序执行
+     */
+    private List<ThumbBatchItem> items;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,41 @@
+package com.aih.highlike.model.enums;
+
+import lombok.Getter;
+
+/**
+ * 热点检测算法枚举
+ */
+@Getter
+public enum HotKeyAlgorithm {
+
+    /**
+     * HeavyKeeper（对象桶 + synchronized）
+     */
+    HEAVY_KEEPER("HeavyKeeper"),
+
+    /**
+     * 无锁 HeavyKeeper（long[] 桶 + CAS）
+     */
+    LOCK_FREE_HEAVY_KEEPER("无锁 HeavyKeeper"),
+
+    /**
+     * 滑动窗口 HeavyKeeper
+     */
+    SLIDING_WINDOW("滑动窗口"),
+
+    /**
+     * Space-Saving
+     */
+    SPACE_SAVING("Space-Saving"),
+
+    /**
+     * Count-Min Sketch + TopK 堆
+     */
+    COUNT_MIN("Count-Min Sketch");
+
+    private final String description;
+
+    HotKeyAlgorithm(String description) {
+        this.description = description;
+    }
+}
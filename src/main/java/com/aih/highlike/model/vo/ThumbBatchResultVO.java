@@ -0,0 +1,52 @@
+package com.aih.highlike.model.vo;
+
+import com.aih.highlike.model.dto.thumb.ThumbBatchItem;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量点赞结果视图对象
+ */
+@Data
+public class ThumbBatchResultVO implements Serializable {
+
+    /**
+     * 博客ID
+     */
+    private Long blogId;
+
+    /**
+     * 操作类型：1=点赞，-1=取消点赞
+     */
+    private Integer type;
+
+    /**
+     * 是否成功
+     */
+    private Boolean success;
+
+    /**
+     * 失败原因，成功时为 null
+     */
+    private String message;
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 构建单项结果
+     *
+     * @param item    请求项
+     * @param success 是否成功
+     * @param message 失败原因
+     * @return 单项结果
+     */
+    public static ThumbBatchResultVO of(ThumbBatchItem item, boolean success, String message) {
+        ThumbBatchResultVO resultVO = new ThumbBatchResultVO();
+        resultVO.setBlogId(item.getBlogId());
+        resultVO.setType(item.getType());
+        resultVO.setSuccess(success);
+        resultVO.setMessage(message);
+        return resultVO;
+    }
+}
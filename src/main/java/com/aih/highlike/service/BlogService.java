@@ -21,6 +21,15 @@ public interface BlogService extends IService<Blog> {
      */
     BlogVO getBlogVO(Long blogId, HttpServletRequest request);
 
+    /**
+     * 获取博客列表
+     * <p>
+     * 只从数据库查询博客ID，博客内容从多级缓存获取
+     *
+     * @return 博客列表
+     */
+    List<Blog> listBlogs();
+
     /**
      * 批量获取博客视图对象列表
      *
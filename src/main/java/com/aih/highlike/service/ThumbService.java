@@ -1,9 +1,16 @@
 package com.aih.highlike.service;
 
+import com.aih.highlike.exception.BusinessException;
+import com.aih.highlike.exception.ErrorCode;
+import com.aih.highlike.model.dto.thumb.ThumbBatchItem;
 import com.aih.highlike.model.entity.Thumb;
+import com.aih.highlike.model.enums.ThumbOperationType;
+import com.aih.highlike.model.vo.ThumbBatchResultVO;
 import com.baomidou.mybatisplus.extension.service.IService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -29,6 +36,38 @@ public interface ThumbService extends IService<Thumb> {
      */
     boolean cancelThumb(Long blogId, HttpServletRequest request);
 
+    /**
+     * 批量点赞 / 取消点赞
+     * <p>
+     * 按顺序执行，单项失败（业务异常或其他运行时异常）不影响其他项，返回与 items 顺序一致的单项结果
+     * <p>
+     * 默认逐项调用 {@link #doThumb} / {@link #cancelThumb}；
+     * 基于 Lua 脚本的实现覆盖为一次脚本调用原子地执行同一用户的全部操作
+     *
+     * @param items   点赞操作列表（已校验 blogId 与操作类型）
+     * @param request HTTP请求
+     * @return 单项结果列表
+     */
+    default List<ThumbBatchResultVO> batchThumb(List<ThumbBatchItem> items, HttpServletRequest request) {
+        List<ThumbBatchResultVO> results = new ArrayList<>(items.size());
+        for (ThumbBatchItem item : items) {
+            try {
+                boolean success = ThumbOperationType.fromValue(item.getType()) == ThumbOperationType.THUMB
+                        ? doThumb(item.getBlogId(), request)
+                        : cancelThumb(item.getBlogId(), request);
+                results.add(ThumbBatchResultVO.of(item, success, null));
+            } catch (BusinessException e) {
+                results.add(ThumbBatchResultVO.of(item, false, e.getMessage()));
+            } catch (RuntimeException e) {
+                // 数据库、Redis 等异常只影响当前项，后续项继续执行
+                LoggerFactory.getLogger(ThumbService.class)
+                        .error("批量点赞单项执行失败：blogId={}, type={}", item.getBlogId(), item.getType(), e);
+                results.add(ThumbBatchResultVO.of(item, false, ErrorCode.SYSTEM_ERROR.getMessage()));
+            }
+        }
+        return results;
+    }
+
     /**
      * 判断用户是否已点赞
      *
@@ -4,6 +4,8 @@ import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import com.aih.highlike.exception.BusinessException;
 import com.aih.highlike.exception.ErrorCode;
+import com.aih.highlike.manager.cache.BlogCacheManager;
+import com.aih.highlike.manager.cache.ThumbCountManager;
 import com.aih.highlike.mapper.BlogMapper;
 import com.aih.highlike.model.entity.Blog;
 import com.aih.highlike.model.entity.User;
@@ -31,14 +33,20 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
     @Resource
     private UserService userService;
 
-    @Resource(name = "thumbServiceRedis")
+    @Resource(name = "thumbServiceLocalCache")
     @Lazy
     private ThumbService thumbService;
 
+    @Resource
+    private BlogCacheManager blogCacheManager;
+
+    @Resource
+    private ThumbCountManager thumbCountManager;
+
     /**
      * 根据ID获取博客视图对象
      * <p>
-     * 包含博客基本信息和当前用户的点赞状态
+     * 包含博客基本信息和当前用户的点赞状态，博客从多级缓存获取，点赞数从 Redis 计数器获取
      *
      * @param blogId  博客ID
      * @param request HTTP请求
@@ -50,13 +58,38 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "博客ID无效");
         }
 
-        Blog blog = this.getById(blogId);
+        Blog blog = blogCacheManager.get(blogId);
         if (blog == null) {
             throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "博客不存在");
         }
 
         User loginUser = userService.getLoginUser(request);
-        return convertToBlogVO(blog, loginUser);
+        BlogVO blogVO = convertToBlogVO(blog, loginUser);
+        Integer thumbCount = thumbCountManager.multiGet(List.of(blogId)).get(blogId);
+        if (thumbCount != null) {
+            blogVO.setThumbCount(thumbCount);
+        }
+        return blogVO;
+    }
+
+    /**
+     * 获取博客列表
+     * <p>
+     * SQL: SELECT id FROM blog
+     * <p>
+     * 博客内容较大，只查询ID，内容从多级缓存批量获取，未命中的部分合并为一次 MySQL 查询
+     *
+     * @return 博客列表
+     */
+    @Override
+    public List<Blog> listBlogs() {
+        List<Long> blogIds = this.lambdaQuery()
+                .select(Blog::getId)
+                .list()
+                .stream()
+                .map(Blog::getId)
+                .toList();
+        return blogCacheManager.multiGet(blogIds);
     }
 
     /**
@@ -66,6 +99,7 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
      * 1. 使用 Redis HMGET 批量查询点赞状态，避免 N+1 查询问题
      * 2. 一次性获取所有博客的点赞状态，而非循环查询
      * 3. 在内存中构建 Map，快速判断每个博客的点赞状态
+     * 4. 点赞数使用 MGET 从 Redis 计数器批量获取，不读取数据库 thumbCount 列
      * <p>
      * 查询流程：
      * 1. 提取所有博客ID列表
@@ -86,7 +120,10 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
         User loginUser = userService.getLoginUser(request);
         Map<Long, Boolean> thumbMap = new HashMap<>();
 
-        // 批量从 Redis 查询当前用户的点赞记录
+        // 批量查询点赞数：MGET thumb:count:{blogId1} thumb:count:{blogId2} ...
+        Map<Long, Integer> thumbCountMap = thumbCountManager.multiGet(blogList.stream().map(Blog::getId).toList());
+
+        // 批量查询当前用户的点赞记录（本地缓存 + Redis）
         if (loginUser != null) {
             // 提取所有博客ID，转为字符串列表（Redis Hash 的 field 是字符串）
             List<Object> blogIdList = blogList.stream()
@@ -94,7 +131,7 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
                     .collect(Collectors.toList());
 
             // 使用 multiGet 批量获取点赞记录
-            // Redis 操作：HMGET thumb:user:{userId} {blogId1} {blogId2} ...
+            // 热点博客走本地缓存，其余合并为一次 HMGET thumb:user:{userId} {blogId1} {blogId2} ...
             // 返回的列表与 blogIdList 顺序一一对应
             List<Object> thumbList = thumbService.multiGetThumbs(loginUser.getId(), blogIdList);
 
@@ -109,12 +146,14 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
             }
         }
 
-        // 转换为 BlogVO 列表，并设置点赞状态
+        // 转换为 BlogVO 列表，并设置点赞状态和点赞数
         return blogList.stream()
                 .map(blog -> {
                     BlogVO blogVO = BeanUtil.copyProperties(blog, BlogVO.class);
                     // 从 Map 中获取点赞状态，默认为 false（未点赞）
                     blogVO.setHasThumb(thumbMap.getOrDefault(blog.getId(), false));
+                    // 计数器不可用时保留博客自身的点赞数
+                    blogVO.setThumbCount(thumbCountMap.getOrDefault(blog.getId(), blog.getThumbCount()));
                     return blogVO;
                 })
                 .collect(Collectors.toList());
@@ -134,10 +173,15 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
         if (blogId == null || blogId <= 0) {
             return false;
         }
-        return this.lambdaUpdate()
+        boolean updated = this.lambdaUpdate()
                 .eq(Blog::getId, blogId)
                 .setSql("thumbCount = thumbCount + 1")
                 .update();
+        if (updated) {
+            // 同步更新点赞数计数器（事务提交后执行）
+            thumbCountManager.increment(blogId, 1);
+        }
+        return updated;
     }
 
     /**
@@ -155,10 +199,15 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
         if (blogId == null || blogId <= 0) {
             return false;
         }
-        return this.lambdaUpdate()
+        boolean updated = this.lambdaUpdate()
                 .eq(Blog::getId, blogId)
                 .setSql("thumbCount = GREATEST(thumbCount - 1, 0)")
                 .update();
+        if (updated) {
+            // 同步更新点赞数计数器（事务提交后执行）
+            thumbCountManager.increment(blogId, -1);
+        }
+        return updated;
     }
 
     /**
@@ -177,8 +226,7 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements Bl
         BlogVO blogVO = BeanUtil.copyProperties(blog, BlogVO.class);
 
         if (loginUser != null) {
-            // 从 Redis 查询是否已点赞
-            // Redis 操作：HEXISTS thumb:user:{userId} {blogId}
+            // 查询是否已点赞（本地缓存未命中时 HGET thumb:user:{userId} {blogId}）
             Boolean hasThumb = thumbService.hasThumb(blog.getId(), loginUser.getId());
             blogVO.setHasThumb(hasThumb);
         } else {
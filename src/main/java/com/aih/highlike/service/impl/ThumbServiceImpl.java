@@ -5,6 +5,9 @@ import com.aih.highlike.constant.ThumbConstant;
 import com.aih.highlike.exception.BusinessException;
 import com.aih.highlike.exception.ErrorCode;
 import com.aih.highlike.manager.cache.CacheManager;
+import com.aih.highlike.manager.cache.UserThumbFilter;
+import com.aih.highlike.manager.lock.StripedLockManager;
+import com.aih.highlike.manager.thumb.ThumbGroupCommitter;
 import com.aih.highlike.mapper.ThumbMapper;
 import com.aih.highlike.model.entity.Thumb;
 import com.aih.highlike.model.entity.User;
@@ -19,6 +22,8 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -44,12 +49,21 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
     @Resource
     private CacheManager cacheManager;
 
+    @Resource
+    private UserThumbFilter userThumbFilter;
+
+    @Resource
+    private StripedLockManager stripedLockManager;
+
+    @Resource
+    private ThumbGroupCommitter thumbGroupCommitter;
+
     /**
      * 点赞
      * <p>
      * 执行流程：
      * 1. 参数校验和登录态检查
-     * 2. 使用用户ID作为锁，防止同一用户并发点赞
+     * 2. 使用用户ID对应的分段锁，防止同一用户并发点赞（等待超时则失败）
      * 3. 在事务中执行：
      *    - 从 Redis 检查是否已点赞
      *    - 更新博客点赞数（MySQL）
@@ -57,6 +71,8 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
      *    - 写入点赞记录到 Redis
      * <p>
      * 注意：锁包裹事务，确保并发安全和数据一致性
+     * <p>
+     * 开启组提交时，数据库写入交给 {@link ThumbGroupCommitter} 与其他请求合并提交
      *
      * @param blogId  博客ID
      * @param request HTTP请求
@@ -78,14 +94,23 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
         // 用于存储该用户的所有点赞记录，使用 Hash 结构
         String userThumbKey = ThumbConstant.USER_THUMB_KEY_PREFIX + userId;
 
-        // 使用用户ID作为锁，防止同一用户并发点赞
-        // intern() 确保相同字符串使用同一个锁对象
-        synchronized (String.valueOf(userId).intern()) {
+        // 组提交：锁内检查状态后排队等待合并提交
+        if (thumbGroupCommitter.isEnabled()) {
+            return stripedLockManager.executeWithLock(userId, () -> {
+                if (isThumbed(blogId, userId)) {
+                    throw new BusinessException(ErrorCode.OPERATION_ERROR, "已点赞，请勿重复操作");
+                }
+                thumbGroupCommitter.thumb(userId, blogId);
+                return true;
+            });
+        }
+
+        // 使用用户ID对应的分段锁，防止同一用户并发点赞
+        return stripedLockManager.executeWithLock(userId, () ->
             // 使用编程式事务，确保事务在锁内完整执行
-            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
-                // 从 Redis 检查是否已点赞
-                Boolean exists = hasThumb(blogId, userId);
-                if (Boolean.TRUE.equals(exists)) {
+            Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                // 从 Redis 检查是否已点赞（不经过点赞过滤器，过滤器跨节点只保证最终一致）
+                if (isThumbed(blogId, userId)) {
                     throw new BusinessException(ErrorCode.OPERATION_ERROR, "已点赞，请勿重复操作");
                 }
 
@@ -112,10 +137,12 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
 
                 // 如果本地缓存存在该 Key，则更新
                 cacheManager.putIfPresent(userThumbKey, blogId.toString(), thumb.getId());
+                // 加入点赞过滤器（其他节点经失效广播加入）
+                userThumbFilter.add(userId, blogId.toString());
 
                 return true;
-            }));
-        }
+            }))
+        );
     }
 
     /**
@@ -123,7 +150,7 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
      * <p>
      * 执行流程：
      * 1. 参数校验和登录态检查
-     * 2. 使用用户ID作为锁，防止同一用户并发取消点赞
+     * 2. 使用用户ID对应的分段锁，防止同一用户并发取消点赞（等待超时则失败）
      * 3. 在事务中执行：
      *    - 从 Redis 获取点赞记录ID
      *    - 更新博客点赞数（MySQL）
@@ -131,6 +158,8 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
      *    - 删除 Redis 中的点赞记录
      * <p>
      * 注意：锁包裹事务，确保并发安全和数据一致性
+     * <p>
+     * 开启组提交时，数据库写入交给 {@link ThumbGroupCommitter} 与其他请求合并提交
      *
      * @param blogId  博客ID
      * @param request HTTP请求
@@ -151,10 +180,22 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
         // 构建 Redis Key: thumb:user:{userId}
         String userThumbKey = ThumbConstant.USER_THUMB_KEY_PREFIX + userId;
 
-        // 使用用户ID作为锁，防止同一用户并发取消点赞
-        synchronized (String.valueOf(userId).intern()) {
+        // 组提交：锁内检查状态后排队等待合并提交
+        if (thumbGroupCommitter.isEnabled()) {
+            return stripedLockManager.executeWithLock(userId, () -> {
+                Object thumbIdObj = cacheManager.get(userThumbKey, blogId.toString());
+                if (thumbIdObj == null || thumbIdObj.equals(ThumbConstant.UN_THUMB_CONSTANT)) {
+                    throw new BusinessException(ErrorCode.OPERATION_ERROR, "未点赞，无法取消");
+                }
+                thumbGroupCommitter.cancel(userId, blogId, (Long) thumbIdObj);
+                return true;
+            });
+        }
+
+        // 使用用户ID对应的分段锁，防止同一用户并发取消点赞
+        return stripedLockManager.executeWithLock(userId, () ->
             // 使用编程式事务，确保事务在锁内完整执行
-            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Boolean.TRUE.equals(transactionTemplate.execute(status -> {
                 // 从 Redis 获取点赞记录ID
                 // Redis Hash 操作：HGET thumb:user:{userId} {blogId}
                 // 获取该用户对该博客的点赞记录ID
@@ -185,8 +226,8 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
                 cacheManager.putIfPresent(userThumbKey, blogId.toString(), ThumbConstant.UN_THUMB_CONSTANT);
 
                 return true;
-            }));
-        }
+            }))
+        );
     }
 
 
@@ -202,6 +243,24 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
         if (blogId == null || userId == null) {
             return false;
         }
+        // 过滤器判定一定未点赞时，无需查询缓存
+        if (userThumbFilter.definitelyNotThumbed(userId, blogId.toString())) {
+            return false;
+        }
+        return isThumbed(blogId, userId);
+    }
+
+    /**
+     * 从多级缓存判断用户是否已点赞
+     * <p>
+     * 点赞 / 取消点赞的状态检查使用此方法：点赞过滤器依赖尽力而为的失效广播，
+     * 广播丢失或与其他节点的构建并发时可能误判为未点赞，只用于读路径
+     *
+     * @param blogId 博客ID
+     * @param userId 用户ID
+     * @return 是否已点赞
+     */
+    private boolean isThumbed(Long blogId, Long userId) {
         // 获取缓存中的点赞信息
         String hashKey = ThumbConstant.USER_THUMB_KEY_PREFIX + userId;
         Object thumbIdObj = cacheManager.get(hashKey, blogId.toString());
@@ -214,17 +273,16 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
     }
 
     /**
-     * 批量获取用户的点赞记录（从 Redis 查询）
+     * 批量获取用户的点赞记录（多级缓存查询）
      * <p>
-     * Redis 操作说明：
-     * - 使用 HMGET 命令批量获取 Hash 中多个字段的值
-     * - 命令格式：HMGET thumb:user:{userId} {blogId1} {blogId2} {blogId3} ...
+     * 查询流程：
+     * - 点赞过滤器判定一定未点赞的博客直接返回 null
+     * - 热点博客的点赞状态直接从本地缓存返回
+     * - 其余博客合并为一次 HMGET：HMGET thumb:user:{userId} {blogId1} {blogId2} ...
      * - 返回值列表与传入的 blogIdList 顺序一一对应
-     * - 如果某个 blogId 不存在，对应位置返回 null
      * <p>
-     * 性能优势：
-     * - 一次性获取多个博客的点赞状态，避免 N+1 查询问题
-     * - 批量查询 100 条记录，耗时约 5ms（MySQL 需要 100ms+）
+     * 本地缓存中的未点赞标识（{@link ThumbConstant#UN_THUMB_CONSTANT}）转换为 null，
+     * 与 Redis 中不存在的 Field 保持一致
      * <p>
      * 使用示例：
      * <pre>
@@ -246,10 +304,30 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
         }
         // 构建 Redis Key: thumb:user:{userId}
         String userThumbKey = ThumbConstant.USER_THUMB_KEY_PREFIX + userId;
-        // Redis Hash 操作：HMGET thumb:user:{userId} {blogId1} {blogId2} ...
-        // 批量获取该用户对多个博客的点赞记录ID
-        // 返回的列表与 blogIdList 顺序一一对应
-        return redisTemplate.opsForHash().multiGet(userThumbKey, blogIdList);
+
+        // 过滤器判定一定未点赞的博客直接返回 null，其余博客查询缓存
+        List<Object> thumbIds = new ArrayList<>(Collections.nCopies(blogIdList.size(), null));
+        List<String> maybeFields = new ArrayList<>();
+        List<Integer> maybeIndexes = new ArrayList<>();
+        for (int i = 0; i < blogIdList.size(); i++) {
+            String field = String.valueOf(blogIdList.get(i));
+            if (!userThumbFilter.definitelyNotThumbed(userId, field)) {
+                maybeFields.add(field);
+                maybeIndexes.add(i);
+            }
+        }
+        if (maybeFields.isEmpty()) {
+            return thumbIds;
+        }
+
+        List<Object> cachedThumbIds = cacheManager.multiGet(userThumbKey, maybeFields);
+        for (int j = 0; j < maybeFields.size(); j++) {
+            Object thumbId = cachedThumbIds.get(j);
+            if (thumbId != null && !ThumbConstant.UN_THUMB_CONSTANT.equals(thumbId)) {
+                thumbIds.set(maybeIndexes.get(j), thumbId);
+            }
+        }
+        return thumbIds;
     }
 
     /**
@@ -260,7 +338,7 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
      * - 缓存失效后重新加载
      * <p>
      * 同步流程：
-     * 1. 从 MySQL 查询用户所有点赞记录
+     * 1. 从 MySQL 查询用户所有点赞记录，构建点赞过滤器
      * 2. 构建 Map（blogId -> thumbId）
      * 3. 使用 HMSET 批量写入 Redis
      * <p>
@@ -282,10 +360,17 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
         // 构建 Redis Key: thumb:user:{userId}
         String userThumbKey = ThumbConstant.USER_THUMB_KEY_PREFIX + userId;
 
-        // 从数据库查询用户所有点赞记录
-        List<Thumb> thumbList = this.lambdaQuery()
-                .eq(Thumb::getUserId, userId)
-                .list();
+        // 从数据库查询用户所有点赞记录并构建点赞过滤器
+        // 与点赞使用同一把锁，避免查询之后、过滤器生效之前的点赞丢失
+        List<Thumb> thumbList = stripedLockManager.executeWithLock(userId, () -> {
+            List<Thumb> thumbs = this.lambdaQuery()
+                    .eq(Thumb::getUserId, userId)
+                    .list();
+            userThumbFilter.build(userId, thumbs.stream()
+                    .map(thumb -> thumb.getBlogId().toString())
+                    .toList());
+            return thumbs;
+        });
 
         if (CollUtil.isEmpty(thumbList)) {
             log.info("用户 {} 暂无点赞记录", userId);
@@ -330,6 +415,7 @@ public class ThumbServiceImpl extends ServiceImpl<ThumbMapper, Thumb> implements
         // Redis 操作：DEL thumb:user:{userId}
         // 删除该用户的所有点赞缓存
         redisTemplate.delete(userThumbKey);
+        userThumbFilter.remove(userId);
         log.info("用户 {} 的点赞缓存已清除", userId);
     }
 }
\ No newline at end of file
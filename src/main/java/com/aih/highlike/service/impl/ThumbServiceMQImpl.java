@@ -1,13 +1,19 @@
 package com.aih.highlike.service.impl;
 
 import com.aih.highlike.constant.RedisLuaScript;
+import com.aih.highlike.constant.ThumbConstant;
 import com.aih.highlike.exception.BusinessException;
 import com.aih.highlike.exception.ErrorCode;
 import com.aih.highlike.listener.thumb.msg.ThumbEvent;
+import com.aih.highlike.manager.cache.ThumbCountManager;
+import com.aih.highlike.manager.thumb.ThumbSliceClock;
 import com.aih.highlike.mapper.ThumbMapper;
+import com.aih.highlike.model.dto.thumb.ThumbBatchItem;
 import com.aih.highlike.model.entity.Thumb;
 import com.aih.highlike.model.entity.User;
 import com.aih.highlike.model.enums.LuaExecutionStatus;
+import com.aih.highlike.model.enums.ThumbOperationType;
+import com.aih.highlike.model.vo.ThumbBatchResultVO;
 import com.aih.highlike.service.ThumbService;
 import com.aih.highlike.service.UserService;
 import com.aih.highlike.util.RedisKeyUtil;
@@ -16,11 +22,13 @@ import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.pulsar.core.PulsarTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +52,12 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb> implemen
     @Resource
     private PulsarTemplate<ThumbEvent> pulsarTemplate;
 
+    @Resource
+    private ThumbCountManager thumbCountManager;
+
+    @Resource
+    private ThumbSliceClock thumbSliceClock;
+
     /**
      * 点赞
      *
@@ -66,28 +80,14 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb> implemen
         Long userId = loginUser.getId();
         String userThumbKey = RedisKeyUtil.getUserThumbKey(userId);
 
-        // 执行 lua 脚本，点赞存入 redis
-        Long result = redisTemplate.execute(
-                RedisLuaScript.THUMB_SCRIPT_MQ,
-                List.of(userThumbKey),
-                blogId
-        );
+        // 执行 lua 脚本，点赞存入 redis，并累加按 Redis 服务器时间计算的时间片内的待消费点赞数和点赞数
+        long sliceId = thumbSliceClock.currentSliceId();
+        Long result = executeMqScript(RedisLuaScript.THUMB_SCRIPT_MQ, userThumbKey, blogId, sliceId);
         if (LuaExecutionStatus.isFailure(result)) {
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "已点赞，请勿重复操作");
         }
 
-        ThumbEvent event = ThumbEvent.builder()
-                .userId(userId)
-                .blogId(blogId)
-                .type(ThumbEvent.EventType.INCR)
-                .eventTime(LocalDateTime.now())
-                .build();
-
-        pulsarTemplate.sendAsync("thumb-topic", event).exceptionally(ex -> {
-            redisTemplate.opsForHash().delete(userThumbKey, blogId, true);
-            log.error("点赞事件发送失败：userId={}, blogId={}", userId, blogId, ex);
-            return null;
-        });
+        sendThumbEvent(userId, blogId, ThumbEvent.EventType.INCR, sliceId);
         return true;
     }
 
@@ -113,31 +113,122 @@ public class ThumbServiceMQImpl extends ServiceImpl<ThumbMapper, Thumb> implemen
         Long userId = loginUser.getId();
         String userThumbKey = RedisKeyUtil.getUserThumbKey(userId);
 
-        // 执行 lua 脚本，点赞存入 redis
-        Long result = redisTemplate.execute(
-                RedisLuaScript.UNTHUMB_SCRIPT_MQ,
-                List.of(userThumbKey),
-                blogId
-        );
+        // 执行 lua 脚本，删除 redis 中的点赞记录，并扣减按 Redis 服务器时间计算的时间片内的待消费点赞数和点赞数
+        long sliceId = thumbSliceClock.currentSliceId();
+        Long result = executeMqScript(RedisLuaScript.UNTHUMB_SCRIPT_MQ, userThumbKey, blogId, sliceId);
         if (LuaExecutionStatus.isFailure(result)) {
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "未点赞");
         }
 
+        sendThumbEvent(userId, blogId, ThumbEvent.EventType.DECR, sliceId);
+        return true;
+    }
+
+    /**
+     * 批量点赞 / 取消点赞
+     * <p>
+     * 同一用户的全部操作在一次 Lua 脚本调用中按顺序原子执行，成功的每一项再各自发送点赞事件
+     *
+     * @param items   点赞操作列表
+     * @param request HTTP请求
+     * @return 单项结果列表
+     */
+    @Override
+    public List<ThumbBatchResultVO> batchThumb(List<ThumbBatchItem> items, HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR);
+        }
+
+        Long userId = loginUser.getId();
+        String userThumbKey = RedisKeyUtil.getUserThumbKey(userId);
+
+        // KEYS: 用户点赞状态、待消费变化量、待消费时间片索引、每项的点赞数增量分片
+        // ARGV: 保留时间、时间片ID、每项博客ID / 操作类型 / 增量分片过期时间点
+        long sliceId = thumbSliceClock.currentSliceId();
+        List<String> counterKeys = new ArrayList<>(items.size());
+        List<Object> args = new ArrayList<>(2 + items.size() * 3);
+        args.add(ThumbConstant.MQ_PENDING_THUMB_EXPIRE_SECONDS);
+        args.add(sliceId);
+        for (ThumbBatchItem item : items) {
+            ThumbCountManager.CounterShard counterShard = thumbCountManager.shardFor(item.getBlogId());
+            counterKeys.add(counterShard.key());
+            args.add(item.getBlogId());
+            args.add(item.getType());
+            args.add(counterShard.expireAt());
+        }
+
+        List<?> statuses = redisTemplate.execute(RedisLuaScript.BATCH_THUMB_SCRIPT_MQ,
+                mqScriptKeys(userThumbKey, sliceId, counterKeys), args.toArray());
+        List<ThumbBatchResultVO> results = ThumbServiceRedisImpl.toBatchResults(items, statuses);
+        for (ThumbBatchResultVO result : results) {
+            if (!Boolean.TRUE.equals(result.getSuccess())) {
+                continue;
+            }
+            ThumbEvent.EventType type = ThumbOperationType.fromValue(result.getType()) == ThumbOperationType.THUMB
+                    ? ThumbEvent.EventType.INCR
+                    : ThumbEvent.EventType.DECR;
+            sendThumbEvent(userId, result.getBlogId(), type, sliceId);
+        }
+        return results;
+    }
+
+    /**
+     * 发送点赞事件
+     * <p>
+     * 发送失败时执行反向脚本，回滚 Redis 中的点赞记录、待消费点赞数（反向变化量记在当前时间片，合计抵消）和点赞数
+     *
+     * @param userId  用户ID
+     * @param blogId  博客ID
+     * @param type    事件类型
+     * @param sliceId 点赞脚本写入的时间片ID
+     */
+    private void sendThumbEvent(Long userId, Long blogId, ThumbEvent.EventType type, long sliceId) {
         ThumbEvent event = ThumbEvent.builder()
                 .userId(userId)
                 .blogId(blogId)
-                .type(ThumbEvent.EventType.DECR)
+                .type(type)
                 .eventTime(LocalDateTime.now())
+                .sliceId(sliceId)
                 .build();
 
+        boolean thumb = type == ThumbEvent.EventType.INCR;
+        RedisScript<Long> rollbackScript = thumb ? RedisLuaScript.UNTHUMB_SCRIPT_MQ : RedisLuaScript.THUMB_SCRIPT_MQ;
         pulsarTemplate.sendAsync("thumb-topic", event).exceptionally(ex -> {
-            redisTemplate.opsForHash().delete(userThumbKey, blogId, true);
-            log.error("取消点赞事件发送失败：userId={}, blogId={}", userId, blogId, ex);
+            executeMqScript(rollbackScript, RedisKeyUtil.getUserThumbKey(userId), blogId,
+                    thumbSliceClock.currentSliceId());
+            log.error("点赞事件发送失败：userId={}, blogId={}, type={}", userId, blogId, type, ex);
             return null;
         });
-        return true;
     }
 
+    /**
+     * 执行单项 MQ 点赞 / 取消点赞脚本
+     *
+     * @param script       点赞或取消点赞脚本
+     * @param userThumbKey 用户点赞状态 Key
+     * @param blogId       博客ID
+     * @param sliceId      时间片ID
+     * @return 脚本返回值
+     */
+    private Long executeMqScript(RedisScript<Long> script, String userThumbKey, Long blogId, long sliceId) {
+        ThumbCountManager.CounterShard counterShard = thumbCountManager.shardFor(blogId);
+        return redisTemplate.execute(script,
+                mqScriptKeys(userThumbKey, sliceId, List.of(counterShard.key())),
+                blogId, ThumbConstant.MQ_PENDING_THUMB_EXPIRE_SECONDS, sliceId, counterShard.expireAt());
+    }
+
+    /**
+     * MQ 点赞脚本的 KEYS：用户点赞状态、时间片内的待消费变化量、待消费时间片索引、点赞数增量分片
+     */
+    private static List<String> mqScriptKeys(String userThumbKey, long sliceId, List<String> counterKeys) {
+        List<String> keys = new ArrayList<>(3 + counterKeys.size());
+        keys.add(userThumbKey);
+        keys.add(RedisKeyUtil.getMqPendingThumbCountKey(sliceId));
+        keys.add(ThumbConstant.MQ_PENDING_THUMB_SLICES_KEY);
+        keys.addAll(counterKeys);
+        return keys;
+    }
 
     /**
      * 判断用户是否已点赞
@@ -1,13 +1,18 @@
 package com.aih.highlike.service.impl;
 
-import cn.hutool.core.date.DateUtil;
 import com.aih.highlike.constant.RedisLuaScript;
+import com.aih.highlike.constant.ThumbConstant;
 import com.aih.highlike.exception.BusinessException;
 import com.aih.highlike.exception.ErrorCode;
+import com.aih.highlike.manager.cache.ThumbCountManager;
+import com.aih.highlike.manager.thumb.ThumbSliceClock;
 import com.aih.highlike.mapper.ThumbMapper;
+import com.aih.highlike.model.dto.thumb.ThumbBatchItem;
 import com.aih.highlike.model.entity.Thumb;
 import com.aih.highlike.model.entity.User;
 import com.aih.highlike.model.enums.LuaExecutionStatus;
+import com.aih.highlike.model.enums.ThumbOperationType;
+import com.aih.highlike.model.vo.ThumbBatchResultVO;
 import com.aih.highlike.service.ThumbService;
 import com.aih.highlike.service.UserService;
 import com.aih.highlike.util.RedisKeyUtil;
@@ -18,8 +23,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,7 +32,7 @@ import java.util.Map;
  * 点赞服务异步实现
  * <p>
  * 核心特点：
- * 1. 使用 Lua 脚本保证原子性，无需加锁和事务
+ * 1. 使用 Lua 脚本保证原子性（点赞记录、临时记录与点赞数一起更新），无需加锁和事务
  * 2. 点赞操作只写 Redis，定时任务异步批量同步到数据库
  * 3. 使用时间分片策略，便于批量处理
  */
@@ -42,10 +46,16 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Resource
+    private ThumbCountManager thumbCountManager;
+
+    @Resource
+    private ThumbSliceClock thumbSliceClock;
+
     /**
      * 点赞（异步版本）
      * <p>
-     * 使用 Lua 脚本原子性地完成：检查状态 -> 记录点赞 -> 写入临时记录
+     * 使用 Lua 脚本原子性地完成：检查状态 -> 记录点赞 -> 写入临时记录 -> 点赞数 +1
      * <p>
      * 定时任务会批量同步临时记录到数据库
      *
@@ -66,19 +76,19 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
 
         Long userId = loginUser.getId();
         
-        // 计算当前时间片（按10秒分片）
-        String timeSlice = calculateTimeSlice();
-        
-        // 构建 Redis Key
-        String tempThumbKey = RedisKeyUtil.getTempThumbKey(timeSlice);
-        String userThumbKey = RedisKeyUtil.getUserThumbKey(userId);
+        // 按 Redis 服务器时间计算当前时间片，构建 Redis Key
+        long sliceId = thumbSliceClock.currentSliceId();
+        ThumbCountManager.CounterShard counterShard = thumbCountManager.shardFor(blogId);
+        List<String> keys = scriptKeys(userId, sliceId, List.of(counterShard.key()));
 
         // 执行 Lua 脚本
         Long result = redisTemplate.execute(
                 RedisLuaScript.THUMB_SCRIPT,
-                Arrays.asList(tempThumbKey, userThumbKey),
+                keys,
                 userId,
-                blogId
+                blogId,
+                sliceId,
+                counterShard.expireAt()
         );
 
         // 判断执行结果
@@ -86,14 +96,14 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "已点赞，请勿重复操作");
         }
 
-        log.debug("用户 {} 点赞博客 {} 成功，时间片：{}", userId, blogId, timeSlice);
+        log.debug("用户 {} 点赞博客 {} 成功", userId, blogId);
         return LuaExecutionStatus.isSuccess(result);
     }
 
     /**
      * 取消点赞（异步版本）
      * <p>
-     * 使用 Lua 脚本原子性地完成：检查状态 -> 删除点赞 -> 写入临时记录
+     * 使用 Lua 脚本原子性地完成：检查状态 -> 删除点赞 -> 写入临时记录 -> 点赞数 -1
      * <p>
      * 定时任务会批量同步临时记录到数据库
      *
@@ -114,19 +124,19 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
 
         Long userId = loginUser.getId();
         
-        // 计算当前时间片（按10秒分片）
-        String timeSlice = calculateTimeSlice();
-        
-        // 构建 Redis Key
-        String tempThumbKey = RedisKeyUtil.getTempThumbKey(timeSlice);
-        String userThumbKey = RedisKeyUtil.getUserThumbKey(userId);
+        // 按 Redis 服务器时间计算当前时间片，构建 Redis Key
+        long sliceId = thumbSliceClock.currentSliceId();
+        ThumbCountManager.CounterShard counterShard = thumbCountManager.shardFor(blogId);
+        List<String> keys = scriptKeys(userId, sliceId, List.of(counterShard.key()));
 
         // 执行 Lua 脚本
         Long result = redisTemplate.execute(
                 RedisLuaScript.CANCEL_THUMB_SCRIPT,
-                Arrays.asList(tempThumbKey, userThumbKey),
+                keys,
                 userId,
-                blogId
+                blogId,
+                sliceId,
+                counterShard.expireAt()
         );
 
         // 判断执行结果
@@ -134,10 +144,50 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "未点赞，无法取消");
         }
 
-        log.debug("用户 {} 取消点赞博客 {} 成功，时间片：{}", userId, blogId, timeSlice);
+        log.debug("用户 {} 取消点赞博客 {} 成功", userId, blogId);
         return LuaExecutionStatus.isSuccess(result);
     }
 
+    /**
+     * 批量点赞 / 取消点赞（异步版本）
+     * <p>
+     * 同一用户的全部操作在一次 Lua 脚本调用中按顺序原子执行，每项的处理与单次点赞 / 取消点赞一致
+     *
+     * @param items   点赞操作列表
+     * @param request HTTP请求
+     * @return 单项结果列表
+     */
+    @Override
+    public List<ThumbBatchResultVO> batchThumb(List<ThumbBatchItem> items, HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        if (loginUser == null) {
+            throw new BusinessException(ErrorCode.NOT_LOGIN_ERROR);
+        }
+
+        Long userId = loginUser.getId();
+
+        // KEYS: 用户点赞状态、临时记录、待同步点赞数变化量、待同步时间片索引、每项的点赞数增量分片
+        // ARGV: 用户ID、时间片ID、每项博客ID / 操作类型 / 增量分片过期时间点
+        long sliceId = thumbSliceClock.currentSliceId();
+        List<String> counterKeys = new ArrayList<>(items.size());
+        List<Object> args = new ArrayList<>(2 + items.size() * 3);
+        args.add(userId);
+        args.add(sliceId);
+        for (ThumbBatchItem item : items) {
+            ThumbCountManager.CounterShard counterShard = thumbCountManager.shardFor(item.getBlogId());
+            counterKeys.add(counterShard.key());
+            args.add(item.getBlogId());
+            args.add(item.getType());
+            args.add(counterShard.expireAt());
+        }
+        List<String> keys = scriptKeys(userId, sliceId, counterKeys);
+
+        List<?> statuses = redisTemplate.execute(RedisLuaScript.BATCH_THUMB_SCRIPT, keys, args.toArray());
+        List<ThumbBatchResultVO> results = toBatchResults(items, statuses);
+        log.debug("用户 {} 批量点赞 {} 项", userId, items.size());
+        return results;
+    }
+
     @Override
     public Boolean hasThumb(Long blogId, Long userId) {
         if (blogId == null || userId == null) {
@@ -192,17 +242,37 @@ public class ThumbServiceRedisImpl extends ServiceImpl<ThumbMapper, Thumb> imple
     }
 
     /**
-     * 计算当前时间片（按10秒分片）
-     * <p>
-     * 示例：14:30:23 -> 14:30:20
+     * 点赞脚本的 KEYS：用户点赞状态、临时记录、待同步点赞数变化量、待同步时间片索引、点赞数增量分片
+     */
+    private static List<String> scriptKeys(Long userId, long sliceId, List<String> counterKeys) {
+        List<String> keys = new ArrayList<>(4 + counterKeys.size());
+        keys.add(RedisKeyUtil.getUserThumbKey(userId));
+        keys.add(RedisKeyUtil.getTempThumbKey(sliceId));
+        keys.add(ThumbConstant.PENDING_THUMB_COUNT_KEY);
+        keys.add(ThumbConstant.PENDING_THUMB_SLICES_KEY);
+        keys.addAll(counterKeys);
+        return keys;
+    }
+
+    /**
+     * 将批量脚本的返回值转换为单项结果
      *
-     * @return 时间片字符串（格式：HH:mm:ss）
+     * @param items    点赞操作列表
+     * @param statuses 脚本返回值，与 items 顺序一致
+     * @return 单项结果列表
      */
-    private String calculateTimeSlice() {
-        Date now = new Date();
-        int second = DateUtil.second(now);
-        // 向下取整到10的倍数
-        int sliceSecond = (second / 10) * 10;
-        return DateUtil.format(now, "HH:mm:") + String.format("%02d", sliceSecond);
+    static List<ThumbBatchResultVO> toBatchResults(List<ThumbBatchItem> items, List<?> statuses) {
+        List<ThumbBatchResultVO> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ThumbBatchItem item = items.get(i);
+            Object status = statuses == null ? null : statuses.get(i);
+            if (LuaExecutionStatus.isSuccess(status instanceof Number number ? number.longValue() : null)) {
+                results.add(ThumbBatchResultVO.of(item, true, null));
+            } else {
+                boolean thumb = ThumbOperationType.fromValue(item.getType()) == ThumbOperationType.THUMB;
+                results.add(ThumbBatchResultVO.of(item, false, thumb ? "已点赞，请勿重复操作" : "未点赞，无法取消"));
+            }
+        }
+        return results;
     }
 }
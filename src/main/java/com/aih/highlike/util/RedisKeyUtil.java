@@ -1,5 +1,6 @@
 package com.aih.highlike.util;
 
+import com.aih.highlike.constant.CacheConstant;
 import com.aih.highlike.constant.ThumbConstant;
 
 /**
@@ -24,14 +25,115 @@ public class RedisKeyUtil {
     /**
      * 获取临时点赞记录 Key
      * <p>
-     * 格式：thumb:temp:{timeSlice}
+     * 格式：thumb:temp:{sliceId}
      * <p>
-     * 示例：thumb:temp:14:30:20
+     * 示例：thumb:temp:1761805820
      *
-     * @param timeSlice 时间片（格式：HH:mm:ss）
+     * @param sliceId 时间片ID（epoch 秒，按10秒取整）
      * @return Redis Key
      */
-    public static String getTempThumbKey(String timeSlice) {
-        return String.format(ThumbConstant.TEMP_THUMB_KEY_PREFIX, timeSlice);
+    public static String getTempThumbKey(long sliceId) {
+        return String.format(ThumbConstant.TEMP_THUMB_KEY_PREFIX, sliceId);
+    }
+
+    /**
+     * 获取 MQ 待消费点赞数变化量 Key
+     * <p>
+     * 格式：thumb:mq:count:{sliceId}
+     *
+     * @param sliceId 时间片ID（epoch 秒，按10秒取整）
+     * @return Redis Key
+     */
+    public static String getMqPendingThumbCountKey(long sliceId) {
+        return String.format(ThumbConstant.MQ_PENDING_THUMB_COUNT_KEY_PREFIX, sliceId);
+    }
+
+    /**
+     * 获取时间片同步锁 Key
+     * <p>
+     * 格式：thumb:sync:lock:{sliceId}
+     *
+     * @param sliceId 时间片ID（epoch 秒，按10秒取整）
+     * @return Redis Key
+     */
+    public static String getSyncSliceLockKey(long sliceId) {
+        return String.format(ThumbConstant.SYNC_SLICE_LOCK_KEY_PREFIX, sliceId);
+    }
+
+    /**
+     * 获取博客点赞数计数器基数 Key
+     * <p>
+     * 格式：thumb:count:{blogId}:{generation}
+     *
+     * @param blogId     博客ID
+     * @param generation 计数器代数
+     * @return Redis Key
+     */
+    public static String getThumbCountKey(Long blogId, long generation) {
+        return ThumbConstant.THUMB_COUNT_KEY_PREFIX + blogId + ":" + generation;
+    }
+
+    /**
+     * 获取博客点赞数计数器增量分片 Key
+     * <p>
+     * 格式：thumb:count:{blogId}:{generation}:{shard}
+     *
+     * @param blogId     博客ID
+     * @param generation 计数器代数
+     * @param shard      分片编号
+     * @return Redis Key
+     */
+    public static String getThumbCountShardKey(Long blogId, long generation, int shard) {
+        return ThumbConstant.THUMB_COUNT_KEY_PREFIX + blogId + ":" + generation + ":" + shard;
+    }
+
+    /**
+     * 获取博客点赞数计数器分片标记 Key
+     * <p>
+     * 格式：thumb:count:{blogId}:{generation}:sharded
+     *
+     * @param blogId     博客ID
+     * @param generation 计数器代数
+     * @return Redis Key
+     */
+    public static String getThumbCountShardedKey(Long blogId, long generation) {
+        return getThumbCountKey(blogId, generation) + ThumbConstant.THUMB_COUNT_SHARDED_SUFFIX;
+    }
+
+    /**
+     * 获取节点在集群热点窗口内的上报 Key
+     * <p>
+     * 格式：hotkey:global:{window}:{nodeId}
+     *
+     * @param window 时间窗口编号
+     * @param nodeId 节点ID
+     * @return Redis Key
+     */
+    public static String getGlobalHotKey(long window, String nodeId) {
+        return CacheConstant.GLOBAL_HOT_KEY_PREFIX + window + ":" + nodeId;
+    }
+
+    /**
+     * 获取集群热点窗口内的上报节点集合 Key
+     * <p>
+     * 格式：hotkey:global:{window}:nodes
+     *
+     * @param window 时间窗口编号
+     * @return Redis Key
+     */
+    public static String getGlobalHotKeyNodesKey(long window) {
+        return CacheConstant.GLOBAL_HOT_KEY_PREFIX + window + ":nodes";
+    }
+
+    /**
+     * 获取博客缓存 Key
+     * <p>
+     * 格式：blog:{blogId}
+     *
+     * @param blogId 博客ID
+     * @return Redis Key
+     */
+    public static String getBlogKey(Long blogId) {
+        return CacheConstant.BLOG_KEY_PREFIX + blogId;
     }
 }